@@ -0,0 +1,57 @@
+package com.books.bookservice.jmh;
+
+import com.books.bookservice.model.Book;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of List<Book> (the GET /api/books payload)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookJsonBenchmark {
+
+    @Param({"21", "1000", "100000"})
+    public int books;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Book> catalog;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TypeReference<List<Book>> type = new TypeReference<>() {};
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        catalog = new ArrayList<>(books);
+        for (int id = 0; id < books; id++) {
+            Book book = new Book("Benchmark Book " + id, id % 10 + 1);
+            book.setId(id);
+            catalog.add(book);
+        }
+        json = writer.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public List<Book> deserialize() throws Exception {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,60 @@
+package com.books.bookservice.jmh;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import com.books.bookservice.service.BitmapBookIdAllocator;
+import com.books.bookservice.service.BookChangeLog;
+import com.books.bookservice.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID assignment cost of BookService.saveBook with a stubbed repository and the
+ * bitmap allocator, at different capacities and fill levels (share of IDs already taken).
+ * The hi/lo allocator's fast path is a single atomic increment and is not measured here.
+ * 
+ * Every benchmark releases the ID it got, so the fill level stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdAllocationBenchmark {
+
+    @Param({"21", "10000", "1000000"})
+    public int capacity;
+
+    @Param({"0", "50", "90", "99"})
+    public int fillPercent;
+
+    private BitmapBookIdAllocator allocator;
+    private BookService bookService;
+
+    @Setup
+    public void setUp() {
+        BookRepository repository = StubBookRepository.withIds(capacity * fillPercent / 100);
+        allocator = new BitmapBookIdAllocator(repository, capacity);
+        allocator.warmUp();
+        bookService = new BookService(repository, allocator, new BookChangeLog(1000),
+                Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry(), 500, 1000);
+    }
+
+    @Benchmark
+    public int allocateAndRelease() {
+        int id = allocator.allocate();
+        allocator.release(id);
+        return id;
+    }
+
+    @Benchmark
+    public Book saveBook() {
+        Book saved = bookService.saveBook(new Book("Benchmark Book", 7));
+        allocator.release(saved.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,48 @@
+package com.books.bookservice.jmh;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory BookRepository for benchmarks: existing IDs for the allocator and
+ * the startup scans, save() returns its argument. Anything else is unsupported.
+ */
+final class StubBookRepository {
+
+    private StubBookRepository() {
+    }
+
+    static BookRepository withIds(int count) {
+        List<Book> existing = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            Book book = new Book();
+            book.setId(id);
+            existing.add(book);
+        }
+        return (BookRepository) Proxy.newProxyInstance(
+                BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAllIdsSorted":
+                            return existing;
+                        case "streamAllByOrderByIdAsc":
+                            return existing.stream();
+                        case "save":
+                            return args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubBookRepository";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
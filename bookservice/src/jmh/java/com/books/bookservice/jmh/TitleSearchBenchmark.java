@@ -0,0 +1,83 @@
+package com.books.bookservice.jmh;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.service.BookChangeLog;
+import com.books.bookservice.service.BookTitleIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Type-ahead title search: BookTitleIndex against a case-insensitive regex scan
+ * of every title (what a $regex query on the books collection has to do, minus
+ * the round trip), for queries as a user types them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TitleSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "the", "of", "and", "clean", "code", "art", "history", "river", "night", "garden",
+            "story", "stone", "secret", "winter", "silent", "lost", "city", "empire", "journey", "shadow",
+            "light", "ocean", "mountain", "king", "queen", "war", "peace", "dream", "fire", "ice",
+            "programming", "design", "patterns", "systems", "data", "learning", "guide", "complete", "modern", "little",
+            "house", "road", "star", "moon", "sun", "forest", "wolf", "song", "letters", "island"
+    };
+
+    @Param({"10000", "1000000"})
+    public int books;
+
+    @Param({"s", "st", "sto", "story", "story of th"})
+    public String query;
+
+    private BookTitleIndex index;
+    private List<Book> catalog;
+    private Pattern pattern;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        catalog = new ArrayList<>(books);
+        for (int id = 0; id < books; id++) {
+            StringBuilder title = new StringBuilder();
+            int words = 2 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                title.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            Book book = new Book(title.length() > 50 ? title.substring(0, 50) : title.toString(), 1 + random.nextInt(10));
+            book.setId(id);
+            catalog.add(book);
+        }
+        BookChangeLog changeLog = new BookChangeLog(1000);
+        index = new BookTitleIndex(StubBookRepository.withIds(0), changeLog, 100);
+        index.warmUp();
+        changeLog.appendAll(catalog);
+        pattern = Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    @Benchmark
+    public List<Book> index() {
+        return index.search(query, 10);
+    }
+
+    @Benchmark
+    public List<Book> regexScan() {
+        List<Book> matches = new ArrayList<>();
+        for (Book book : catalog) {
+            if (pattern.matcher(book.getTitle()).find()) {
+                matches.add(book);
+            }
+        }
+        matches.sort(Comparator.comparing(Book::getRating).reversed());
+        return matches.subList(0, Math.min(10, matches.size()));
+    }
+}
@@ -2,10 +2,19 @@ package com.books.bookservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
 
 @SpringBootApplication
 public class BookServiceApplication {
     public static void main(String[] args) {
-        SpringApplication.run(BookServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(BookServiceApplication.class);
+        if (Boolean.getBoolean("cds.training-run")) {
+            // AppCDS training run (mvn -Pstartup package): exit once the context is up, before
+            // the MongoDB warm-ups, so the JVM writes its class archive without needing a database
+            application.addListeners((ApplicationListener<ApplicationStartedEvent>) event ->
+                    System.exit(SpringApplication.exit(event.getApplicationContext())));
+        }
+        application.run(args);
     }
-}
\ No newline at end of file
+}
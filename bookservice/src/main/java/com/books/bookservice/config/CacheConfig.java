@@ -0,0 +1,64 @@
+package com.books.bookservice.config;
+
+import com.books.bookservice.service.BookChangeLog;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the read-through cache used by BookService.
+ *
+ * Provider, size and TTL come from spring.cache.* in application.yml.
+ * Hit/miss/eviction counters are published as cache.* metrics on /actuator/metrics.
+ *
+ * Top-rated lists are keyed by catalog version and get their own, small spec
+ * (books.cache.top-rated-spec): one entry per (limit, minRating) asked for at the
+ * current version. Entries of older versions are dropped as soon as the version moves.
+ *
+ * The per-ID cache follows the change log as well, so a book written through another
+ * instance (or a cached miss for its ID) is not served from here after the change arrives.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS_CACHE = "books";
+    public static final String TOP_RATED_CACHE = "topRatedBooks";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> topRatedCacheSpec(
+            @Value("${books.cache.top-rated-spec:maximumSize=64,expireAfterWrite=60s,recordStats}") String spec) {
+        return cacheManager -> cacheManager.registerCustomCache(TOP_RATED_CACHE, Caffeine.from(spec).build());
+    }
+
+    @Bean
+    public InitializingBean changeLogEviction(CacheManager cacheManager, BookChangeLog bookChangeLog) {
+        return () -> {
+            bookChangeLog.addListener(books -> {
+                clear(cacheManager, TOP_RATED_CACHE);
+                Cache byId = cacheManager.getCache(BOOKS_CACHE);
+                if (byId != null) {
+                    books.forEach(book -> byId.evict(book.getId()));
+                }
+            });
+            bookChangeLog.addResetListener(() -> {
+                clear(cacheManager, TOP_RATED_CACHE);
+                clear(cacheManager, BOOKS_CACHE);
+            });
+        };
+    }
+
+    private static void clear(CacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
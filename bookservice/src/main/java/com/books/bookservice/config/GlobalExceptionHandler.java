@@ -1,5 +1,7 @@
 package com.books.bookservice.config;
 
+import com.books.bookservice.service.WriteQueueFullException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -24,6 +26,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
     
+    /**
+     * Write-behind queue full: ask the client to back off
+     */
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleWriteQueueFull(WriteQueueFullException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("httpCode", 429);
+        errorResponse.put("message", e.getMessage());
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+    
     /**
      * Handle validation errors (@Valid annotations)
      */
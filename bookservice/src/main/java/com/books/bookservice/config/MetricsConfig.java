@@ -0,0 +1,33 @@
+package com.books.bookservice.config;
+
+import com.books.bookservice.service.BookIdAllocator;
+import com.books.bookservice.service.BookTitleIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalog gauges, read from the ID allocator and the title index so a scrape never queries MongoDB.
+ *
+ * Repository calls are timed by Spring Boot as spring.data.repository.invocations
+ * (tagged by method) and everything is scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder bookCatalogMetrics(BookIdAllocator bookIdAllocator, BookTitleIndex bookTitleIndex) {
+        return registry -> {
+            Gauge.builder("books.catalog.size", bookIdAllocator, BookIdAllocator::getAllocatedCount)
+                    .description("Number of books in the catalog, as seen by this instance")
+                    .register(registry);
+            Gauge.builder("books.capacity.remaining", bookIdAllocator, BookIdAllocator::getRemainingCount)
+                    .description("Number of free book IDs left before writes are rejected")
+                    .register(registry);
+            Gauge.builder("books.search.index.size", bookTitleIndex, BookTitleIndex::size)
+                    .description("Number of books in the title search index")
+                    .register(registry);
+        };
+    }
+}
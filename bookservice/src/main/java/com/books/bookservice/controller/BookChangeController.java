@@ -0,0 +1,83 @@
+package com.books.bookservice.controller;
+
+import com.books.bookservice.dto.ChangeFeed;
+import com.books.bookservice.service.BookChangeLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change feed for consumers that keep a local replica of the catalog.
+ *
+ * Parked long-polls are answered on a small dedicated pool
+ * (books.changes.notify-threads / notify-queue-size), not on the thread that
+ * published the write, so a POST does not pay for every idle subscriber.
+ * All exceptions bubble up to GlobalExceptionHandler
+ */
+@RestController
+@RequestMapping("/api/books/changes")
+public class BookChangeController {
+
+    private final BookChangeLog changeLog;
+    private final long maxWaitMs;
+    private final ThreadPoolExecutor notifyExecutor;
+
+    public BookChangeController(BookChangeLog changeLog,
+                                @Value("${books.changes.max-wait-ms:30000}") long maxWaitMs,
+                                @Value("${books.changes.notify-threads:2}") int notifyThreads,
+                                @Value("${books.changes.notify-queue-size:10000}") int notifyQueueSize) {
+        this.changeLog = changeLog;
+        this.maxWaitMs = maxWaitMs;
+        this.notifyExecutor = new ThreadPoolExecutor(notifyThreads, notifyThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(notifyQueueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "book-change-notify");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        notifyExecutor.shutdownNow();
+    }
+
+    /**
+     * GET /books/changes?since={version}&epoch={epoch}&waitMs={ms} - Changes after a version
+     * 
+     * Long-poll: when nothing changed since the given version, the request is
+     * parked (without holding a Tomcat thread) for up to waitMs and answered as
+     * soon as a write happens. On timeout an empty change list is returned.
+     */
+    @GetMapping
+    public DeferredResult<ChangeFeed> getChanges(@RequestParam long since,
+                                                 @RequestParam(required = false) String epoch,
+                                                 @RequestParam(defaultValue = "0") long waitMs) {
+        long timeout = Math.max(0, Math.min(waitMs, maxWaitMs));
+        DeferredResult<ChangeFeed> result = new DeferredResult<>(timeout > 0 ? timeout : null,
+                () -> changeLog.changesSince(epoch, since));
+
+        ChangeFeed feed = changeLog.changesSince(epoch, since);
+        if (timeout == 0 || feed.isReset() || !feed.getChanges().isEmpty()) {
+            result.setResult(feed);
+            return result;
+        }
+        changeLog.awaitChangeAfter(since)
+                .thenRunAsync(() -> result.setResult(changeLog.changesSince(epoch, since)), notifyExecutor)
+                // Pool full or shut down: an empty answer makes the consumer poll again right away
+                .exceptionally(e -> {
+                    result.setResult(new ChangeFeed(changeLog.getEpoch(), since, false, Collections.emptyList()));
+                    return null;
+                });
+        return result;
+    }
+}
@@ -1,14 +1,36 @@
 package com.books.bookservice.controller;
 
+import com.books.bookservice.config.WireFormatConfig;
+import com.books.bookservice.dto.BatchItemResult;
+import com.books.bookservice.dto.BatchResponse;
+import com.books.bookservice.dto.BookPage;
 import com.books.bookservice.model.Book;
+import com.books.bookservice.service.BookChangeLog;
 import com.books.bookservice.service.BookService;
+import com.books.bookservice.service.BookTitleIndex;
+import com.books.bookservice.service.BookWriteBehindQueue;
+import com.books.bookservice.service.CatalogResponseCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * All exceptions bubble up to GlobalExceptionHandler
@@ -17,24 +39,153 @@ import java.util.Optional;
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String CATALOG_EPOCH_HEADER = "X-Catalog-Epoch";
+    public static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+    private static final String RATING_DESC = "rating,desc";
+    private static final String CATALOG_VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+    private static final String DURABLE_ACK = "durable";
+
     private final BookService bookService;
+    private final BookChangeLog bookChangeLog;
+    private final CatalogResponseCache catalogResponseCache;
+    private final BookWriteBehindQueue bookWriteBehindQueue;
+    private final BookTitleIndex bookTitleIndex;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter ndjsonWriter;
+    private final int defaultPageSize;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookChangeLog bookChangeLog,
+                          CatalogResponseCache catalogResponseCache, BookWriteBehindQueue bookWriteBehindQueue,
+                          BookTitleIndex bookTitleIndex, ObjectMapper objectMapper,
+                          @Value("${books.page.default-limit:100}") int defaultPageSize) {
         this.bookService = bookService;
+        this.bookChangeLog = bookChangeLog;
+        this.catalogResponseCache = catalogResponseCache;
+        this.bookWriteBehindQueue = bookWriteBehindQueue;
+        this.bookTitleIndex = bookTitleIndex;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        // Let the generator buffer fill up instead of flushing after every document
+        this.ndjsonWriter = objectMapper.writerFor(Book.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
      /**
      * Get all books in the system.
      * 
-     * Note: In larger datasets, this endpoint should implement
-     * pagination using @RequestParam for page/size parameters and return Page<Book>.
-     * For this assignment, with a maximum capacity of 20 books, returning all books
-     * is acceptable and keeps the implementation simple.
+     * Note: Loads the whole catalog into memory. For large catalogs use
+     * keyset pagination (?after=&limit=) or the NDJSON stream below.
+     * 
+     * The catalog version headers are read before the books, so a replica that
+     * follows /api/books/changes from that version cannot miss a write.
+     * 
+     * The ETag is derived from the catalog version: a matching If-None-Match
+     * is answered with 304 without touching MongoDB or Jackson.
+     * 
+     * The body is encoded once per catalog version (see CatalogResponseCache) and
+     * the same bytes, already gzipped when the client accepts it, are written
+     * to every request until the next write.
      */
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        List<Book> books = bookService.getAllBooks();
-        return ResponseEntity.ok(books);
+    public void getAllBooks(ServletWebRequest request) throws IOException {
+        writeCatalog(request, CatalogResponseCache.Format.JSON, MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    /**
+     * GET /books with Accept: application/x-jackson-smile - Same catalog in Smile (binary JSON)
+     */
+    @GetMapping(produces = WireFormatConfig.APPLICATION_SMILE)
+    public void getAllBooksSmile(ServletWebRequest request) throws IOException {
+        writeCatalog(request, CatalogResponseCache.Format.SMILE, WireFormatConfig.APPLICATION_SMILE);
+    }
+
+    /**
+     * GET /books?after={id}&limit={n} - Keyset pagination ordered by ID
+     * 
+     * Returns the page plus a nextCursor to pass as "after" (null on the last page).
+     */
+    @GetMapping(params = {"limit", "!sort"})
+    public ResponseEntity<BookPage> getBooksPage(@RequestParam(required = false) Integer after,
+                                                 @RequestParam int limit) {
+        return ResponseEntity.ok(bookService.getBooksAfter(after, limit));
+    }
+
+    /**
+     * GET /books?after={id} - Next page of books.page.default-limit books, so a cursor
+     * without limit is never answered with the whole catalog
+     */
+    @GetMapping(params = {"after", "!limit", "!sort"})
+    public ResponseEntity<BookPage> getBooksPageAfter(@RequestParam Integer after) {
+        return getBooksPage(after, defaultPageSize);
+    }
+
+    /**
+     * GET /books?sort=rating,desc&limit={n}&minRating={r} - Top n books by rating
+     * 
+     * Highest rating first, ties by ID; minRating is optional. MongoDB sorts and
+     * limits on the rating index, so only n books are read and sent.
+     * Same ETag and catalog version headers as the full catalog.
+     */
+    @GetMapping(params = "sort")
+    public ResponseEntity<List<Book>> getTopRatedBooks(@RequestParam String sort,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) Integer minRating,
+                                                       WebRequest request) {
+        if (!RATING_DESC.equals(sort)) {
+            throw new RuntimeException("Unsupported sort '" + sort + "', only " + RATING_DESC + " is supported");
+        }
+        if (limit == null) {
+            throw new RuntimeException("limit is required when sorting");
+        }
+        long version = bookChangeLog.getVersion();
+        String etag = catalogETag(version);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        List<Book> books = bookService.getTopRated(limit, minRating);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(CATALOG_EPOCH_HEADER, bookChangeLog.getEpoch())
+                .header(CATALOG_VERSION_HEADER, Long.toString(version))
+                .body(books);
+    }
+
+    /**
+     * GET /books with Accept: application/x-ndjson - Streams every book, one JSON document per line
+     * 
+     * Documents are written as they come off the MongoDB cursor, so heap use
+     * does not grow with the catalog size.
+     */
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Book> books = bookService.streamAllBooks();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<Book> iterator = books.iterator();
+                while (iterator.hasNext()) {
+                    ndjsonWriter.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
+    }
+
+    /**
+     * GET /books/search?q={text}&limit={n} - Title search for type-ahead
+     * 
+     * Every word of q must match a word of the title (1-2 characters: word prefix,
+     * longer: substring), best match first. Served from BookTitleIndex, no MongoDB query.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Book>> searchBooks(@RequestParam(required = false) String q,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookTitleIndex.search(q, limit));
     }
 
     /**
@@ -53,10 +204,88 @@ public class BookController {
 
     /**
      * POST /books - Add new book
+     * 
+     * With books.write-behind.enabled the book is queued and 202 is returned with
+     * its assigned ID (429 when the queue is full); ?ack=durable waits for MongoDB
+     * and returns 201 as without write-behind.
      */
     @PostMapping
-    public ResponseEntity<Book> addBook(@Valid @RequestBody Book book) {
+    public ResponseEntity<Book> addBook(@Valid @RequestBody Book book,
+                                        @RequestParam(required = false) String ack) {
+        if (bookWriteBehindQueue.isEnabled() && !DURABLE_ACK.equals(ack)) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(bookWriteBehindQueue.enqueue(book));
+        }
         Book savedBook = bookService.saveBook(book);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedBook); 
     }
+
+    /**
+     * POST /books/batch - Add many books with a single bulk write
+     * 
+     * Returns 201 when every book was created, otherwise 207 with per-item results.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> addBooks(@RequestBody List<Book> books) {
+        List<BatchItemResult> results = bookService.saveBooks(books);
+        BatchResponse response = new BatchResponse(results);
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private void writeCatalog(ServletWebRequest request, CatalogResponseCache.Format format, String contentType)
+            throws IOException {
+        HttpServletResponse response = request.getResponse();
+        response.setHeader(HttpHeaders.VARY, CATALOG_VARY);
+        long version = bookChangeLog.getVersion();
+        if (request.checkNotModified(catalogETag(version))) {
+            return;
+        }
+
+        // May be newer than the version checked above, its headers must describe these bytes
+        CatalogResponseCache.EncodedCatalog catalog = catalogResponseCache.get(version);
+        byte[] body = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) ? catalog.gzippedBody(format) : null;
+        if (body != null) {
+            // Tomcat does not compress responses that already have a Content-Encoding
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            body = catalog.body(format);
+        }
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.ETAG, catalogETag(catalog.getVersion()));
+        response.setHeader(CATALOG_EPOCH_HEADER, bookChangeLog.getEpoch());
+        response.setHeader(CATALOG_VERSION_HEADER, Long.toString(catalog.getVersion()));
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * True when Accept-Encoding lists gzip with a non-zero q-value ("gzip;q=0" refuses it)
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private String catalogETag(long version) {
+        return "\"" + bookChangeLog.getEpoch() + "-" + version + "\"";
+    }
 }
@@ -0,0 +1,69 @@
+package com.books.bookservice.controller;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.service.ReactiveBookService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking /api/v2/books endpoints backed by reactive MongoDB.
+ * 
+ * Served by the same servlet stack as /api/books: Spring MVC subscribes to the
+ * returned Flux/Mono and frees the request thread until data arrives, so the
+ * same GlobalExceptionHandler and @Valid handling apply to both versions.
+ * All exceptions bubble up to GlobalExceptionHandler
+ */
+@RestController
+@RequestMapping("/api/v2/books")
+public class BookV2Controller {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final ReactiveBookService bookService;
+
+    public BookV2Controller(ReactiveBookService bookService) {
+        this.bookService = bookService;
+    }
+
+    /**
+     * GET /api/v2/books - All books as a JSON array, ordered by ID
+     */
+    @GetMapping
+    public Flux<Book> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    /**
+     * GET /api/v2/books with Accept: application/x-ndjson - One JSON document per line
+     * 
+     * Written as they arrive; the next book is only requested from MongoDB once
+     * the previous one was written (backpressure from a slow client reaches the cursor).
+     */
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public Flux<Book> streamAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    /**
+     * GET /api/v2/books/{id} - Returns book by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Book>> getBookById(@PathVariable Integer id) {
+        return bookService.getBookById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/v2/books - Add new book
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Book>> addBook(@Valid @RequestBody Book book) {
+        return bookService.saveBook(book)
+                .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
+    }
+}
@@ -0,0 +1,77 @@
+package com.books.bookservice.controller;
+
+import com.books.bookservice.model.UserRating;
+import com.books.bookservice.service.UserRatingService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * User ratings of books, the input of recommendedservice's personalized recommendations.
+ * All exceptions bubble up to GlobalExceptionHandler
+ */
+@RestController
+@RequestMapping("/api/books")
+public class UserRatingController {
+
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final UserRatingService userRatingService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter ndjsonWriter;
+
+    public UserRatingController(UserRatingService userRatingService, ObjectMapper objectMapper) {
+        this.userRatingService = userRatingService;
+        this.objectMapper = objectMapper;
+        this.ndjsonWriter = objectMapper.writerFor(UserRating.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * POST /books/{id}/ratings - Records a user's rating of a book (201), 404 for an unknown book.
+     * Rating the same book again replaces the earlier rating.
+     */
+    @PostMapping("/{id}/ratings")
+    public ResponseEntity<UserRating> rateBook(@PathVariable Integer id, @Valid @RequestBody UserRating rating) {
+        return userRatingService.rateBook(id, rating)
+                .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /books/ratings - Streams every rating, one JSON document per line,
+     * straight from the MongoDB cursor (read by the recommendation batch job)
+     */
+    @GetMapping("/ratings")
+    public ResponseEntity<StreamingResponseBody> streamAllRatings() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<UserRating> ratings = userRatingService.streamAllRatings();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<UserRating> iterator = ratings.iterator();
+                while (iterator.hasNext()) {
+                    ndjsonWriter.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
+    }
+}
@@ -0,0 +1,46 @@
+package com.books.bookservice.dto;
+
+/**
+ * Outcome of a single book within a batch insert
+ */
+public class BatchItemResult {
+
+    public enum Status { CREATED, FAILED }
+
+    private final int index;
+    private final Status status;
+    private final Integer id;
+    private final String message;
+
+    private BatchItemResult(int index, Status status, Integer id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BatchItemResult created(int index, Integer id) {
+        return new BatchItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult failed(int index, String message) {
+        return new BatchItemResult(index, Status.FAILED, null, message);
+    }
+
+    // Getters
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
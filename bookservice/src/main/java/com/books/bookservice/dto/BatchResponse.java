@@ -0,0 +1,38 @@
+package com.books.bookservice.dto;
+
+import java.util.List;
+
+/**
+ * Response body of POST /api/books/batch - one result per submitted book, in request order
+ */
+public class BatchResponse {
+
+    private final int created;
+    private final int failed;
+    private final List<BatchItemResult> results;
+
+    public BatchResponse(List<BatchItemResult> results) {
+        int createdCount = 0;
+        for (BatchItemResult result : results) {
+            if (result.getStatus() == BatchItemResult.Status.CREATED) {
+                createdCount++;
+            }
+        }
+        this.created = createdCount;
+        this.failed = results.size() - createdCount;
+        this.results = results;
+    }
+
+    // Getters
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,34 @@
+package com.books.bookservice.dto;
+
+import com.books.bookservice.model.Book;
+
+/**
+ * One entry of the change feed: the state of a book after the write with this version
+ */
+public class BookChange {
+
+    public enum Type { UPSERT }
+
+    private final long version;
+    private final Type type;
+    private final Book book;
+
+    public BookChange(long version, Type type, Book book) {
+        this.version = version;
+        this.type = type;
+        this.book = book;
+    }
+
+    // Getters
+    public long getVersion() {
+        return version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+}
@@ -0,0 +1,29 @@
+package com.books.bookservice.dto;
+
+import com.books.bookservice.model.Book;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated book listing.
+ * Pass {@code nextCursor} as {@code after} to fetch the following page; it is null on the last page.
+ */
+public class BookPage {
+
+    private final List<Book> items;
+    private final Integer nextCursor;
+
+    public BookPage(List<Book> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<Book> getItems() {
+        return items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.books.bookservice.dto;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/books/changes.
+ * 
+ * When {@code reset} is true the requested version is no longer covered by the
+ * changelog (too old, or from another epoch) and the client must reload the
+ * full catalog, then continue from the version returned with it.
+ */
+public class ChangeFeed {
+
+    private final String epoch;
+    private final long version;
+    private final boolean reset;
+    private final List<BookChange> changes;
+
+    public ChangeFeed(String epoch, long version, boolean reset, List<BookChange> changes) {
+        this.epoch = epoch;
+        this.version = version;
+        this.reset = reset;
+        this.changes = changes;
+    }
+
+    // Getters
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public List<BookChange> getChanges() {
+        return changes;
+    }
+}
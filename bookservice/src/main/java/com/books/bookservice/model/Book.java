@@ -1,15 +1,17 @@
 package com.books.bookservice.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.index.Indexed;
 import jakarta.validation.constraints.*;
 
 @Document(collection = "books")
+// Top-N by rating walks this index in order and stops after N entries (ID breaks ties)
+@CompoundIndex(name = "rating_desc_id_asc", def = "{ 'rating' : -1, '_id' : 1 }")
 public class Book {
     
     @Id
-    private Integer id; // Auto-generated between 0-20
+    private Integer id; // Assigned by BookIdAllocator
     
     @NotBlank(message = "Title cannot be blank")
     @Size(max = 50, message = "Title cannot exceed 50 characters")
@@ -18,7 +20,6 @@ public class Book {
     @NotNull(message = "Rating is required")
     @Min(value = 1, message = "Rating must be at least 1")
     @Max(value = 10, message = "Rating must be at most 10")
-    @Indexed // Index for faster sorting by rating
     private Integer rating;
     
     public Book() {}
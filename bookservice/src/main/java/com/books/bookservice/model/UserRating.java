@@ -0,0 +1,83 @@
+package com.books.bookservice.model;
+
+import jakarta.validation.constraints.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One user's rating of one book, input of the personalized recommendations
+ * computed by recommendedservice.
+ */
+@Document(collection = "ratings")
+public class UserRating {
+
+    @Id
+    private String id; // userId:bookId, so rating a book again replaces the earlier rating
+
+    @NotBlank(message = "User ID cannot be blank")
+    @Size(max = 64, message = "User ID cannot exceed 64 characters")
+    private String userId;
+
+    private Integer bookId; // Taken from the request path
+
+    @NotNull(message = "Rating is required")
+    @Min(value = 1, message = "Rating must be at least 1")
+    @Max(value = 10, message = "Rating must be at most 10")
+    private Integer rating;
+
+    private Instant ratedAt;
+
+    public UserRating() {}
+
+    public UserRating(String userId, Integer rating) {
+        this.userId = userId;
+        this.rating = rating;
+    }
+
+    public static String idOf(String userId, Integer bookId) {
+        return userId + ":" + bookId;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Integer getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Integer bookId) {
+        this.bookId = bookId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public Instant getRatedAt() {
+        return ratedAt;
+    }
+
+    public void setRatedAt(Instant ratedAt) {
+        this.ratedAt = ratedAt;
+    }
+}
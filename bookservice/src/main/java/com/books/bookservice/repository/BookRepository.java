@@ -1,21 +1,56 @@
 package com.books.bookservice.repository;
 
 import com.books.bookservice.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends MongoRepository<Book, Integer> {
+public interface BookRepository extends MongoRepository<Book, Integer>, BookRepositoryCustom {
     
     /**
-     * Optimized query for ID gap-finding:
+     * Optimized query for rebuilding the ID bitmap (BitmapBookIdAllocator), run once at startup:
      * - fields = "{ 'id' : 1 }" : Only fetch ID field (reduces bandwidth)
      * - sort = "{ 'id' : 1 }" : Leverage MongoDB's indexed sorting
-     * Single query instead of 21 separate existsById() calls
+     * Single query instead of one existsById() call per slot
      */
     @Query(value = "{}", fields = "{ 'id' : 1 }", sort = "{ 'id' : 1 }")
     List<Book> findAllIdsSorted();
+
+    /**
+     * Which of {@code ids} are stored, fetching only the ID field
+     */
+    @Query(value = "{ '_id' : { '$in' : ?0 } }", fields = "{ 'id' : 1 }")
+    List<Book> findIdsIn(Collection<Integer> ids);
+
+    /**
+     * Book with the highest ID, read from the end of the _id index.
+     * Used once at startup to move the hi/lo ID counter past existing books.
+     */
+    Optional<Book> findFirstByOrderByIdDesc();
+
+    /**
+     * Keyset pagination on the _id index: range scan from the cursor,
+     * no skip() so deep pages cost the same as the first one
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    /**
+     * Top-rated books with rating >= {@code minRating}, highest first, ties by ID.
+     * Served by the { rating: -1, _id: 1 } index: no in-memory sort, only the
+     * requested page is read.
+     */
+    List<Book> findByRatingGreaterThanEqualOrderByRatingDescIdAsc(Integer minRating, Pageable pageable);
+
+    /**
+     * Backed by a MongoDB cursor - documents are fetched in batches while the stream is consumed.
+     * Callers must close the stream.
+     */
+    Stream<Book> streamAllByOrderByIdAsc();
 }
\ No newline at end of file
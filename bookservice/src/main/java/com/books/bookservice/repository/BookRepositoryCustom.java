@@ -0,0 +1,38 @@
+package com.books.bookservice.repository;
+
+import com.books.bookservice.model.Book;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom repository fragment for operations Spring Data cannot derive
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Inserts all books with a single unordered bulk write.
+     * Unordered: one bad document does not stop the rest of the batch.
+     * @return position in {@code books} -> error message for every book that was not inserted
+     */
+    Map<Integer, String> insertAllUnordered(List<Book> books);
+
+    /**
+     * Creates the indexes declared on Book if they do not exist yet
+     * (Spring Boot leaves automatic index creation off).
+     */
+    void ensureIndexes();
+
+    /**
+     * Atomically reserves the next {@code count} book IDs from the shared ID counter
+     * (one findAndModify on the counters collection, created on first use).
+     * @return the end (exclusive) of the reserved range; it starts at the returned value - count
+     */
+    long reserveIds(int count);
+
+    /**
+     * Moves the shared ID counter up to {@code next} unless it is already past it
+     * (e.g. to skip IDs assigned before the counter existed). Never moves it back.
+     */
+    void advanceIdCounter(long next);
+}
@@ -0,0 +1,83 @@
+package com.books.bookservice.repository;
+
+import com.books.bookservice.model.Book;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picked up by Spring Data through the "Impl" naming convention
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String COUNTERS_COLLECTION = "counters";
+    private static final String BOOK_ID_COUNTER = "bookId";
+    private static final String NEXT_FIELD = "next";
+
+    private final MongoTemplate mongoTemplate;
+
+    public BookRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Book> books) {
+        if (books.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class)
+                    .insert(books)
+                    .execute();
+            return Collections.emptyMap();
+        } catch (BulkOperationException e) {
+            // Only the listed documents failed, everything else was written
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Book.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Book.class)
+                .forEach(indexOps::ensureIndex);
+    }
+
+    @Override
+    public long reserveIds(int count) {
+        Document counter = mongoTemplate.findAndModify(
+                bookIdCounter(),
+                new Update().inc(NEXT_FIELD, (long) count),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class,
+                COUNTERS_COLLECTION);
+        return counter.get(NEXT_FIELD, Number.class).longValue();
+    }
+
+    @Override
+    public void advanceIdCounter(long next) {
+        mongoTemplate.upsert(bookIdCounter(), new Update().max(NEXT_FIELD, next), COUNTERS_COLLECTION);
+    }
+
+    private static Query bookIdCounter() {
+        return Query.query(Criteria.where("_id").is(BOOK_ID_COUNTER));
+    }
+}
@@ -0,0 +1,19 @@
+package com.books.bookservice.repository;
+
+import com.books.bookservice.model.Book;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of BookRepository for the /api/v2 endpoints.
+ * Uses the reactive streams MongoDB driver, results are pulled on demand.
+ */
+@Repository
+public interface ReactiveBookRepository extends ReactiveMongoRepository<Book, Integer> {
+
+    /**
+     * Whole catalog ordered by ID, fetched from the cursor as the subscriber requests more
+     */
+    Flux<Book> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,16 @@
+package com.books.bookservice.repository;
+
+import com.books.bookservice.model.UserRating;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface UserRatingRepository extends MongoRepository<UserRating, String> {
+
+    /**
+     * Every rating, read from a MongoDB cursor (GET /api/books/ratings export)
+     */
+    Stream<UserRating> streamAllBy();
+}
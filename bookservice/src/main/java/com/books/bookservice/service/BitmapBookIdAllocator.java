@@ -0,0 +1,172 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory allocator for book IDs (books.ids.allocation=bitmap).
+ *
+ * Keeps one bit per ID slot (0..capacity-1) and hands out the lowest free slot
+ * using compare-and-set on 64-bit words, so concurrent POSTs never receive the
+ * same ID and no database round trip is needed per write.
+ *
+ * The scan starts at a hint (the lowest word that may have a free bit) instead
+ * of word 0, so a mostly full catalog of millions of IDs does not cost a scan of
+ * every full word per write.
+ *
+ * The bitmap is rebuilt from MongoDB once (at startup, or lazily on first use
+ * if MongoDB was not reachable yet). It assumes this instance is the only writer.
+ */
+@Component
+@ConditionalOnProperty(name = "books.ids.allocation", havingValue = "bitmap")
+public class BitmapBookIdAllocator implements BookIdAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(BitmapBookIdAllocator.class);
+
+    private final BookRepository bookRepository;
+    private final int capacity;
+    private final AtomicLongArray words;
+    private final AtomicInteger allocated = new AtomicInteger();
+    // Every word below this index is full (best effort, see allocate())
+    private final AtomicInteger firstFreeWord = new AtomicInteger();
+
+    private volatile boolean loaded;
+
+    public BitmapBookIdAllocator(BookRepository bookRepository,
+                                 @Value("${books.capacity:1000000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("books.capacity must be positive");
+        }
+        this.bookRepository = bookRepository;
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+    }
+
+    /**
+     * Eagerly rebuild the bitmap once the application is up.
+     * A failure here is not fatal: the next allocation retries the rebuild.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Could not load existing book IDs at startup, will retry on first write: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims the lowest free ID.
+     * @return the claimed ID, or {@link #NO_FREE_ID} when every slot is taken
+     */
+    @Override
+    public int allocate() {
+        ensureLoaded();
+        if (allocated.get() >= capacity) {
+            return NO_FREE_ID;
+        }
+        int start = firstFreeWord.get();
+        int id = allocateFrom(start);
+        if (id == NO_FREE_ID && start > 0) {
+            // A release can race with the hint moving past its word; rescan before giving up
+            id = allocateFrom(0);
+        }
+        return id;
+    }
+
+    /**
+     * Returns a previously claimed ID to the pool (e.g. when the save failed).
+     */
+    @Override
+    public void release(int id) {
+        if (id < 0 || id >= capacity) {
+            return;
+        }
+        int index = id >>> 6;
+        long mask = 1L << (id & 63);
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) == 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word & ~mask));
+        allocated.decrementAndGet();
+        firstFreeWord.accumulateAndGet(index, Math::min);
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getAllocatedCount() {
+        return allocated.get();
+    }
+
+    private int allocateFrom(int startWord) {
+        for (int i = startWord; i < words.length(); i++) {
+            long word = words.get(i);
+            while (word != -1L) {
+                int bit = Long.numberOfTrailingZeros(~word);
+                int id = (i << 6) + bit;
+                if (id >= capacity) {
+                    return NO_FREE_ID;
+                }
+                if (words.compareAndSet(i, word, word | (1L << bit))) {
+                    allocated.incrementAndGet();
+                    return id;
+                }
+                // Lost the race for this word, re-read and try the next free bit
+                word = words.get(i);
+            }
+            // Word i is full: later scans can start after it
+            firstFreeWord.compareAndSet(i, i + 1);
+        }
+        return NO_FREE_ID;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            // Single query for all existing IDs, only paid once per process
+            for (Book book : bookRepository.findAllIdsSorted()) {
+                Integer id = book.getId();
+                if (id != null && id >= 0 && id < capacity) {
+                    markUsed(id);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private void markUsed(int id) {
+        int index = id >>> 6;
+        long mask = 1L << (id & 63);
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        allocated.incrementAndGet();
+    }
+}
@@ -0,0 +1,372 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.dto.BookChange;
+import com.books.bookservice.dto.ChangeFeed;
+import com.books.bookservice.model.Book;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory changelog of book writes.
+ *
+ * Every write bumps a monotonic catalog version. Versions and the epoch come from
+ * a BookChangeStore, so with the shared (MongoDB) store every bookservice instance
+ * issues the same versions: a consumer can long-poll any instance, and ETags and
+ * caches keyed by version advance on every instance after a write on any of them.
+ * Writes through other instances are picked up every books.changes.poll-interval-ms.
+ *
+ * The last {@code capacity} changes are kept in a ring buffer so consumers can
+ * fetch deltas since the version they last saw. The local version only advances
+ * over contiguous versions; a version still missing after books.changes.gap-timeout-ms
+ * (its writer failed between taking the version and storing the change) is skipped,
+ * and consumers behind it reload the catalog.
+ */
+@Component
+public class BookChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeLog.class);
+
+    private final BookChangeStore store;
+    private final BookChange[] ring;
+    private final long pollIntervalMs;
+    private final long gapTimeoutNanos;
+    private final List<Consumer<List<Book>>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> resetListeners = new CopyOnWriteArrayList<>();
+
+    private volatile String epoch;
+    private ScheduledExecutorService poller;
+
+    // Guarded by this
+    private long version;
+    // Consumers behind this version must reload the catalog
+    private long floor;
+    // Highest version known to be issued by any instance
+    private long latestIssued;
+    // Changes after a missing version, waiting for it
+    private final TreeMap<Long, BookChange> pending = new TreeMap<>();
+    private long gapSince;
+    // Books written while the store was unreachable, recorded on the next sync
+    private final List<Book> unrecorded = new ArrayList<>();
+    private CompletableFuture<Void> nextChange = new CompletableFuture<>();
+
+    /**
+     * Single-instance changelog with an in-memory store
+     */
+    public BookChangeLog(int capacity) {
+        this(capacity, new LocalBookChangeStore(capacity), 0, 5000);
+    }
+
+    @Autowired
+    public BookChangeLog(@Value("${books.changes.capacity:1000}") int capacity,
+                         BookChangeStore store,
+                         @Value("${books.changes.poll-interval-ms:500}") long pollIntervalMs,
+                         @Value("${books.changes.gap-timeout-ms:5000}") long gapTimeoutMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("books.changes.capacity must be positive");
+        }
+        this.store = store;
+        this.ring = new BookChange[capacity];
+        this.pollIntervalMs = pollIntervalMs;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+    }
+
+    /**
+     * Loads the current version and starts polling a shared store once the application is up.
+     * A failure to load is not fatal: the next poll or request retries.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!store.isShared() || pollIntervalMs <= 0 || poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-change-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::trySync, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    public String getEpoch() {
+        ensureLoaded();
+        return epoch;
+    }
+
+    public long getVersion() {
+        ensureLoaded();
+        synchronized (this) {
+            return version;
+        }
+    }
+
+    /**
+     * Records a persisted book. Call after the write is durable, so that a
+     * reader that sees the new version also sees the write in MongoDB.
+     */
+    public void append(Book book) {
+        appendAll(Collections.singletonList(book));
+    }
+
+    public void appendAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        List<BookChange> recorded;
+        try {
+            ensureLoaded();
+            recorded = store.record(books);
+        } catch (RuntimeException e) {
+            // The books are stored; consumers see them once the changes are recorded
+            log.warn("Could not record {} book change(s), retrying on the next sync: {}", books.size(), e.getMessage());
+            synchronized (this) {
+                unrecorded.addAll(books);
+            }
+            return;
+        }
+        publish(recorded);
+        if (hasGap()) {
+            // Usually a concurrent write through another instance, already stored
+            trySync();
+        }
+    }
+
+    /**
+     * Calls {@code listener} with every batch the local version advances over (local and
+     * remote writes), after the new version is visible. Concurrent writers may call it
+     * out of version order.
+     */
+    public void addListener(Consumer<List<Book>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Calls {@code listener} when changes were skipped or the epoch changed,
+     * so state built from the listener above must be reloaded from MongoDB.
+     */
+    public void addResetListener(Runnable listener) {
+        resetListeners.add(listener);
+    }
+
+    /**
+     * Changes after {@code since}, or a reset when they are no longer retained.
+     * A version issued by another instance and not synced here yet gets an empty feed.
+     */
+    public ChangeFeed changesSince(String clientEpoch, long since) {
+        ensureLoaded();
+        if (since > latestIssued()) {
+            trySync();
+        }
+        return feedSince(clientEpoch, since);
+    }
+
+    /**
+     * Completes as soon as the version is greater than {@code since}, or on a reset.
+     * All waiters share one future per version, so idle long-polls cost no bookkeeping.
+     */
+    public synchronized CompletableFuture<Void> awaitChangeAfter(long since) {
+        return version > since ? CompletableFuture.completedFuture(null) : nextChange;
+    }
+
+    /**
+     * Records changes that failed earlier, applies changes from other instances and
+     * skips versions that stayed missing for longer than the gap timeout.
+     */
+    public void sync() {
+        ensureLoaded();
+        List<Book> retry;
+        synchronized (this) {
+            retry = new ArrayList<>(unrecorded);
+            unrecorded.clear();
+        }
+        if (!retry.isEmpty()) {
+            try {
+                publish(store.record(retry));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    unrecorded.addAll(0, retry);
+                }
+                throw e;
+            }
+        }
+
+        BookChangeStore.Head head = store.head();
+        if (!head.getEpoch().equals(epoch)) {
+            log.warn("Catalog epoch changed from {} to {}, consumers will reload", epoch, head.getEpoch());
+            reset(head);
+            return;
+        }
+        long after = getVersion();
+        while (after < head.getVersion()) {
+            List<BookChange> changes = store.findAfter(after, ring.length);
+            if (changes.isEmpty()) {
+                break;
+            }
+            publish(changes);
+            after = changes.get(changes.size() - 1).getVersion();
+        }
+        skipExpiredGap();
+    }
+
+    private void trySync() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Could not sync the book change log: {}", e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (epoch != null) {
+            return;
+        }
+        BookChangeStore.Head head = store.head();
+        // Keep what the store still has, so consumers survive a restart of this instance
+        long base = Math.max(0, head.getVersion() - ring.length);
+        List<BookChange> recent = head.getVersion() > base ? store.findAfter(base, ring.length) : List.of();
+        synchronized (this) {
+            if (epoch != null) {
+                return;
+            }
+            version = base;
+            floor = base;
+            latestIssued = head.getVersion();
+            // Nobody listens yet: state built from listeners is loaded from MongoDB
+            apply(recent);
+            epoch = head.getEpoch();
+        }
+    }
+
+    private synchronized ChangeFeed feedSince(String clientEpoch, long since) {
+        boolean sameEpoch = clientEpoch == null || epoch.equals(clientEpoch);
+        long oldestRetained = Math.max(floor, version - ring.length);
+        if (!sameEpoch || since > latestIssued || since < oldestRetained) {
+            return new ChangeFeed(epoch, version, true, Collections.emptyList());
+        }
+        if (since >= version) {
+            return new ChangeFeed(epoch, since, false, Collections.emptyList());
+        }
+        List<BookChange> changes = new ArrayList<>((int) (version - since));
+        for (long v = since + 1; v <= version; v++) {
+            changes.add(ring[(int) (v % ring.length)]);
+        }
+        return new ChangeFeed(epoch, version, false, changes);
+    }
+
+    /**
+     * Applies the changes and wakes up waiters and listeners when the version advanced
+     */
+    private void publish(List<BookChange> changes) {
+        List<Book> books;
+        CompletableFuture<Void> completed;
+        synchronized (this) {
+            books = apply(changes);
+            if (books.isEmpty()) {
+                return;
+            }
+            completed = nextChange;
+            nextChange = new CompletableFuture<>();
+        }
+        // Wake up long-polling readers outside the lock
+        completed.complete(null);
+        for (Consumer<List<Book>> listener : listeners) {
+            listener.accept(books);
+        }
+    }
+
+    /**
+     * Moves the version over every contiguous change. Guarded by this.
+     * @return the books of the changes the version moved over
+     */
+    private List<Book> apply(List<BookChange> changes) {
+        for (BookChange change : changes) {
+            latestIssued = Math.max(latestIssued, change.getVersion());
+            if (change.getVersion() > version) {
+                pending.put(change.getVersion(), change);
+            }
+        }
+        List<Book> books = new ArrayList<>();
+        while (!pending.isEmpty() && pending.firstKey() == version + 1) {
+            BookChange change = pending.pollFirstEntry().getValue();
+            version++;
+            ring[(int) (version % ring.length)] = change;
+            books.add(change.getBook());
+        }
+        if (pending.isEmpty()) {
+            gapSince = 0;
+        } else if (gapSince == 0 || !books.isEmpty()) {
+            gapSince = System.nanoTime();
+        }
+        return books;
+    }
+
+    private synchronized boolean hasGap() {
+        return !pending.isEmpty();
+    }
+
+    private synchronized long latestIssued() {
+        return latestIssued;
+    }
+
+    private void skipExpiredGap() {
+        List<Book> books;
+        CompletableFuture<Void> completed;
+        synchronized (this) {
+            if (pending.isEmpty() || System.nanoTime() - gapSince < gapTimeoutNanos) {
+                return;
+            }
+            long skipped = pending.firstKey() - 1;
+            log.warn("Skipping missing book change versions {}-{}, consumers behind them will reload",
+                    version + 1, skipped);
+            version = skipped;
+            floor = skipped;
+            books = apply(List.of());
+            completed = nextChange;
+            nextChange = new CompletableFuture<>();
+        }
+        completed.complete(null);
+        resetListeners.forEach(Runnable::run);
+        for (Consumer<List<Book>> listener : listeners) {
+            listener.accept(books);
+        }
+    }
+
+    private void reset(BookChangeStore.Head head) {
+        CompletableFuture<Void> completed;
+        synchronized (this) {
+            epoch = head.getEpoch();
+            version = head.getVersion();
+            floor = version;
+            latestIssued = version;
+            pending.clear();
+            gapSince = 0;
+            completed = nextChange;
+            nextChange = new CompletableFuture<>();
+        }
+        completed.complete(null);
+        resetListeners.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,60 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.dto.BookChange;
+import com.books.bookservice.model.Book;
+
+import java.util.List;
+
+/**
+ * Where BookChangeLog gets catalog versions from and records changes.
+ *
+ * Two strategies, selected with books.changes.store:
+ * - local (default): in-memory counter with a random epoch per process, only for a single instance
+ * - mongo: versions from a MongoDB counter and changes in a MongoDB collection, shared by
+ *   every bookservice instance on the same database; costs two round trips per write
+ */
+public interface BookChangeStore {
+
+    /**
+     * Current epoch and the highest version issued so far
+     */
+    Head head();
+
+    /**
+     * Assigns the next versions to {@code books}, in order, and stores the changes.
+     * Versions of concurrent callers (on any instance) may interleave.
+     */
+    List<BookChange> record(List<Book> books);
+
+    /**
+     * Stored changes after {@code version}, oldest first, at most {@code limit} of them.
+     * Versions that were issued but not stored (yet) are missing from the result.
+     */
+    List<BookChange> findAfter(long version, int limit);
+
+    /**
+     * True when other instances write to the same store and must be polled for their changes
+     */
+    boolean isShared();
+
+    /**
+     * Epoch and latest version of a store
+     */
+    final class Head {
+        private final String epoch;
+        private final long version;
+
+        public Head(String epoch, long version) {
+            this.epoch = epoch;
+            this.version = version;
+        }
+
+        public String getEpoch() {
+            return epoch;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
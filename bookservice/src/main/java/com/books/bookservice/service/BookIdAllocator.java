@@ -0,0 +1,62 @@
+package com.books.bookservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Hands out book IDs in the range 0..capacity-1 without reading every existing ID per write.
+ *
+ * Two strategies, selected with books.ids.allocation:
+ * - hilo (default): blocks of IDs leased from a MongoDB counter, safe with several instances
+ * - bitmap: lowest free ID from an in-memory bitmap, only for a single bookservice instance
+ */
+public interface BookIdAllocator {
+
+    int NO_FREE_ID = -1;
+
+    /**
+     * Claims one ID.
+     * @return the claimed ID, or {@link #NO_FREE_ID} when capacity is exhausted
+     */
+    int allocate();
+
+    /**
+     * Claims up to {@code count} IDs in one call.
+     * @return the claimed IDs; shorter than {@code count} when capacity runs out
+     */
+    default int[] allocate(int count) {
+        int[] ids = new int[count];
+        int claimed = 0;
+        while (claimed < count) {
+            int id = allocate();
+            if (id == NO_FREE_ID) {
+                return Arrays.copyOf(ids, claimed);
+            }
+            ids[claimed++] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Returns a previously claimed ID that was never stored (e.g. when the save failed).
+     */
+    void release(int id);
+
+    /**
+     * Loads the allocator state from MongoDB ahead of the first write.
+     */
+    void warmUp();
+
+    int getCapacity();
+
+    /**
+     * Number of books as seen by this instance
+     */
+    int getAllocatedCount();
+
+    /**
+     * Number of IDs that can still be handed out before writes are rejected
+     */
+    default int getRemainingCount() {
+        return getCapacity() - getAllocatedCount();
+    }
+}
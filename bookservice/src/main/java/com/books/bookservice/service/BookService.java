@@ -1,59 +1,280 @@
 package com.books.bookservice.service;
 
+import com.books.bookservice.config.CacheConfig;
+import com.books.bookservice.dto.BatchItemResult;
+import com.books.bookservice.dto.BookPage;
 import com.books.bookservice.model.Book;
 import com.books.bookservice.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 public class BookService {
     
+    private static final Logger log = LoggerFactory.getLogger(BookService.class);
+    
     private final BookRepository bookRepository;
+    private final BookIdAllocator bookIdAllocator;
+    private final BookChangeLog bookChangeLog;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final int maxPageSize;
+    private final Timer allocateTimer;
+    private final Timer persistTimer;
+    
+    private volatile VersionedCatalog catalog;
     
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository,
+                       BookIdAllocator bookIdAllocator,
+                       BookChangeLog bookChangeLog,
+                       Validator validator,
+                       MeterRegistry meterRegistry,
+                       @Value("${books.batch.max-size:500}") int maxBatchSize,
+                       @Value("${books.page.max-limit:1000}") int maxPageSize) {
         this.bookRepository = bookRepository;
+        this.bookIdAllocator = bookIdAllocator;
+        this.bookChangeLog = bookChangeLog;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
+        this.allocateTimer = saveTimer(meterRegistry, "allocate");
+        this.persistTimer = saveTimer(meterRegistry, "persist");
     }
     
+    /**
+     * Cached per catalog version, so a write never has to race an eviction:
+     * readers of the new version simply miss and load the new catalog.
+     * Only the latest version is kept (one volatile pair, like CatalogResponseCache),
+     * so older full catalogs are not retained after a write.
+     */
     public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+        long version = bookChangeLog.getVersion();
+        VersionedCatalog cached = catalog;
+        if (cached != null && cached.version == version) {
+            return cached.books;
+        }
+        List<Book> books = bookRepository.findAll();
+        synchronized (this) {
+            // A slower reader of an older version must not replace a newer catalog
+            if (catalog == null || catalog.version < version) {
+                catalog = new VersionedCatalog(version, books);
+            }
+        }
+        return books;
+    }
+    
+    /**
+     * Creates the rating index behind {@link #getTopRated}. Not fatal when MongoDB
+     * is not reachable yet: queries still work, only without the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            bookRepository.ensureIndexes();
+        } catch (RuntimeException e) {
+            log.warn("Could not create book indexes at startup: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * The {@code limit} highest-rated books, optionally only those rated at least
+     * {@code minRating}. Sorted and limited by MongoDB on the rating index, so the
+     * cost depends on {@code limit}, not on the catalog size.
+     * Cached per catalog version like {@link #getAllBooks()}.
+     */
+    @Cacheable(cacheNames = CacheConfig.TOP_RATED_CACHE, key = "{@bookChangeLog.version, #limit, #minRating}")
+    public List<Book> getTopRated(int limit, Integer minRating) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new RuntimeException("Limit must be between 1 and " + maxPageSize);
+        }
+        if (minRating != null && (minRating < 1 || minRating > 10)) {
+            throw new RuntimeException("minRating must be between 1 and 10");
+        }
+        // Every stored book has a rating of at least 1 (see Book validation)
+        int from = minRating != null ? minRating : 1;
+        return bookRepository.findByRatingGreaterThanEqualOrderByRatingDescIdAsc(from, PageRequest.of(0, limit));
     }
     
+    /**
+     * Keyset pagination ordered by ID
+     * @param after last ID of the previous page, null for the first page
+     */
+    public BookPage getBooksAfter(Integer after, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new RuntimeException("Limit must be between 1 and " + maxPageSize);
+        }
+        // IDs start at 0, so -1 starts from the beginning.
+        // One extra row tells us whether another page exists.
+        int cursor = after != null ? after : -1;
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, limit + 1));
+        if (books.size() <= limit) {
+            return new BookPage(books, null);
+        }
+        List<Book> page = books.subList(0, limit);
+        return new BookPage(page, page.get(limit - 1).getId());
+    }
+
+    /**
+     * Streams the whole catalog ordered by ID straight from a MongoDB cursor.
+     * Callers must close the stream.
+     */
+    public Stream<Book> streamAllBooks() {
+        return bookRepository.streamAllByOrderByIdAsc();
+    }
+    
+    /**
+     * Missing IDs are cached too (as empty), so repeated lookups of unknown
+     * IDs do not reach MongoDB until a save replaces the entry.
+     */
+    @Cacheable(cacheNames = CacheConfig.BOOKS_CACHE)
     public Optional<Book> getBookById(Integer id) {
         return bookRepository.findById(id);
     }
     
+    @CachePut(cacheNames = CacheConfig.BOOKS_CACHE, key = "#result.id")
     public Book saveBook(Book book) {
         /**
-         * Alternative: Redis INCR for atomic ID generation
-         * Pros: Better concurrency, no DB queries
-         * Cons: Added infrastructure complexity
-         * Current approach sufficient for assignment scope
+         * IDs come from BookIdAllocator (hi/lo blocks leased from a MongoDB counter,
+         * or an in-memory bitmap) instead of re-reading every ID from MongoDB on each insert.
          */
-        
-        // Get all IDs in sorted order (ascending) with single query
-        List<Integer> existingIds = bookRepository.findAllIdsSorted()
-            .stream()
-            .map(Book::getId)
-            .collect(Collectors.toList());
-        
-        // Fail-fast: Check capacity before expensive gap-finding
-        if (existingIds.size() >= 21) {
+        long start = System.nanoTime();
+        int id = bookIdAllocator.allocate();
+        allocateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (id == BookIdAllocator.NO_FREE_ID) {
             throw new RuntimeException("Maximum capacity reached");
         }
-        
-        // Find first gap in O(n) where n ≤ 21
-        int expectedId = 0;
-        for (Integer existingId : existingIds) {
-            if (existingId != expectedId) {
-                break; 
+
+        book.setId(id);
+        Book savedBook;
+        start = System.nanoTime();
+        try {
+            savedBook = bookRepository.save(book);
+        } catch (RuntimeException e) {
+            // Give the slot back so a failed write does not leak capacity
+            bookIdAllocator.release(id);
+            throw e;
+        } finally {
+            persistTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        bookChangeLog.append(savedBook);
+        return savedBook;
+    }
+
+    /**
+     * Inserts a batch of books with one bulk write.
+     * Invalid books and books beyond capacity are reported per item instead of
+     * failing the whole batch. New IDs are only known per item, so the whole
+     * per-ID cache is dropped (it also holds cached misses for those IDs).
+     * @return one result per input book, in input order
+     */
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)
+    public List<BatchItemResult> saveBooks(List<Book> books) {
+        if (books == null || books.isEmpty()) {
+            throw new RuntimeException("Batch cannot be empty");
+        }
+        if (books.size() > maxBatchSize) {
+            throw new RuntimeException("Batch size cannot exceed " + maxBatchSize + " books");
+        }
+
+        BatchItemResult[] results = new BatchItemResult[books.size()];
+
+        // 1. Validate every item (same messages as @Valid on the single-item endpoint)
+        List<Integer> validPositions = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            String error = validate(books.get(i));
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, error);
+            } else {
+                validPositions.add(i);
             }
-            expectedId++;
         }
-        
-        book.setId(expectedId);
-        return bookRepository.save(book);
+
+        // 2. Assign IDs for all valid items in one step
+        int[] ids = bookIdAllocator.allocate(validPositions.size());
+        List<Book> toInsert = new ArrayList<>(ids.length);
+        for (int i = 0; i < validPositions.size(); i++) {
+            int position = validPositions.get(i);
+            if (i < ids.length) {
+                Book book = books.get(position);
+                book.setId(ids[i]);
+                toInsert.add(book);
+            } else {
+                results[position] = BatchItemResult.failed(position, "Maximum capacity reached");
+            }
+        }
+
+        // 3. Single unordered bulk insert
+        Map<Integer, String> failures;
+        try {
+            failures = bookRepository.insertAllUnordered(toInsert);
+        } catch (RuntimeException e) {
+            Arrays.stream(ids).forEach(bookIdAllocator::release);
+            throw e;
+        }
+
+        List<Book> created = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            int position = validPositions.get(i);
+            String failure = failures.get(i);
+            if (failure != null) {
+                bookIdAllocator.release(ids[i]);
+                results[position] = BatchItemResult.failed(position, failure);
+            } else {
+                created.add(toInsert.get(i));
+                results[position] = BatchItemResult.created(position, ids[i]);
+            }
+        }
+        bookChangeLog.appendAll(created);
+        return Arrays.asList(results);
+    }
+
+    private static Timer saveTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("books.save")
+                .description("Time spent in each phase of a single-book save (allocate = ID allocation, persist = MongoDB write)")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String validate(Book book) {
+        if (book == null) {
+            return "Book cannot be null";
+        }
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    /**
+     * The whole catalog as read from MongoDB at one catalog version
+     */
+    private static final class VersionedCatalog {
+        private final long version;
+        private final List<Book> books;
+
+        private VersionedCatalog(long version, List<Book> books) {
+            this.version = version;
+            this.books = books;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,358 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over book titles for GET /api/books/search.
+ *
+ * Titles are normalized (lower case, accents and punctuation dropped) and every
+ * word is indexed under its 1- and 2-character prefixes and all of its trigrams.
+ * A query token of 1-2 characters matches words starting with it; a longer token
+ * matches words containing it (trigram postings are intersected, then the title is
+ * checked). Every token must match. Titles are at most 50 characters, so each book
+ * adds at most a few dozen 4-byte postings.
+ *
+ * Built from MongoDB once at startup (or on the first search if MongoDB was not
+ * reachable yet) and kept current from BookChangeLog, so a search never queries MongoDB.
+ * Rebuilt the same way when BookChangeLog had to skip changes.
+ */
+@Component
+public class BookTitleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookTitleIndex.class);
+
+    private static final int GRAM = 3;
+    private static final String PREFIX_MARK = " ";
+
+    // Best first: whole title, title prefix, word prefixes; then rating, shorter title, ID
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt((Hit hit) -> hit.score)
+            .thenComparingInt(hit -> hit.entry.book.getRating())
+            .thenComparingInt(hit -> -hit.entry.normalizedTitle.length())
+            .thenComparingInt(hit -> -hit.entry.book.getId())
+            .reversed();
+
+    private final BookRepository bookRepository;
+    private final int maxLimit;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<String, Postings> postings = new HashMap<>();
+    // Indexed by book ID: IDs are dense, and a lookup per candidate must not box
+    private Entry[] entries = new Entry[1024];
+    private int entryCount;
+
+    private volatile boolean loaded;
+
+    public BookTitleIndex(BookRepository bookRepository,
+                          BookChangeLog bookChangeLog,
+                          @Value("${books.search.max-limit:100}") int maxLimit) {
+        this.bookRepository = bookRepository;
+        this.maxLimit = maxLimit;
+        // Every write path (single, batch, reactive, write-behind) ends in the change log
+        bookChangeLog.addListener(books -> books.forEach(this::add));
+        // Changes were skipped: rebuild from MongoDB on the next search
+        bookChangeLog.addResetListener(() -> loaded = false);
+    }
+
+    /**
+     * Eagerly build the index once the application is up.
+     * A failure here is not fatal: the next search retries the build.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Could not build the title index at startup, will retry on first search: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Books whose title matches every word of {@code query}, best match first.
+     */
+    public List<Book> search(String query, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new RuntimeException("Limit must be between 1 and " + maxLimit);
+        }
+        String normalizedQuery = query != null ? normalize(query) : "";
+        if (normalizedQuery.isEmpty()) {
+            throw new RuntimeException("Query must contain at least one letter or digit");
+        }
+        ensureLoaded();
+        String[] tokens = new LinkedHashSet<>(Arrays.asList(normalizedQuery.split(" "))).toArray(new String[0]);
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String token : tokens) {
+                for (String key : queryKeys(token)) {
+                    Postings list = postings.get(key);
+                    if (list == null) {
+                        return List.of();
+                    }
+                    lists.add(list);
+                }
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            // Keep the best `limit` hits, worst at the head
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            String[] wordStarts = new String[tokens.length];
+            for (int t = 0; t < tokens.length; t++) {
+                wordStarts[t] = " " + tokens[t];
+            }
+            Postings smallest = lists.get(0);
+            candidates:
+            for (int i = 0; i < smallest.size; i++) {
+                int id = smallest.ids[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                Entry entry = entries[id];
+                int score = score(entry, normalizedQuery, tokens, wordStarts);
+                if (score < 0) {
+                    continue;
+                }
+                Hit hit = new Hit(entry, score);
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (RANKING.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            List<Book> books = new ArrayList<>(hits.size());
+            hits.forEach(hit -> books.add(hit.entry.book));
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a stored book, replacing an earlier entry with the same ID
+     */
+    void add(Book book) {
+        if (book.getId() == null || book.getTitle() == null) {
+            return;
+        }
+        Entry entry = new Entry(book, normalize(book.getTitle()));
+        lock.writeLock().lock();
+        try {
+            int id = book.getId();
+            if (id >= entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(id + 1, entries.length * 2));
+            }
+            Entry previous = entries[id];
+            entries[id] = entry;
+            if (previous == null) {
+                entryCount++;
+            } else {
+                for (String key : indexKeys(previous.normalizedTitle)) {
+                    Postings list = postings.get(key);
+                    list.remove(id);
+                    if (list.size == 0) {
+                        postings.remove(key);
+                    }
+                }
+            }
+            for (String key : indexKeys(entry.normalizedTitle)) {
+                postings.computeIfAbsent(key, k -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entryCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            // Cursor-backed: the catalog is never held in memory twice
+            try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+                books.forEach(this::add);
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * -1 when the title does not really contain a token (trigram false positive)
+     */
+    private static int score(Entry entry, String normalizedQuery, String[] tokens, String[] wordStarts) {
+        String title = entry.normalizedTitle;
+        int score = 0;
+        for (int t = 0; t < tokens.length; t++) {
+            String token = tokens[t];
+            if (token.length() >= GRAM && !title.contains(token)) {
+                return -1;
+            }
+            if (title.startsWith(token) || title.contains(wordStarts[t])) {
+                score += 1;
+            }
+        }
+        if (title.equals(normalizedQuery)) {
+            score += 100;
+        } else if (title.startsWith(normalizedQuery)) {
+            score += 50;
+        }
+        return score;
+    }
+
+    private static Set<String> indexKeys(String normalizedTitle) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : normalizedTitle.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            keys.add(PREFIX_MARK + word.substring(0, 1));
+            if (word.length() >= 2) {
+                keys.add(PREFIX_MARK + word.substring(0, 2));
+            }
+            for (int i = 0; i + GRAM <= word.length(); i++) {
+                keys.add(word.substring(i, i + GRAM));
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> queryKeys(String token) {
+        if (token.length() < GRAM) {
+            return List.of(PREFIX_MARK + token);
+        }
+        List<String> keys = new ArrayList<>(token.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            keys.add(token.substring(i, i + GRAM));
+        }
+        return keys;
+    }
+
+    /**
+     * Lower case, accents removed, anything but letters and digits turned into single spaces
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static final class Entry {
+        private final Book book;
+        private final String normalizedTitle;
+
+        private Entry(Book book, String normalizedTitle) {
+            this.book = book;
+            this.normalizedTitle = normalizedTitle;
+        }
+    }
+
+    private static final class Hit {
+        private final Entry entry;
+        private final int score;
+
+        private Hit(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Sorted, growable list of book IDs
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void add(int id) {
+            // IDs mostly arrive in increasing order: append without searching
+            if (size == 0 || ids[size - 1] < id) {
+                grow();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            grow();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
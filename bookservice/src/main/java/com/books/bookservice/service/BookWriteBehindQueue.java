@@ -0,0 +1,334 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.config.CacheConfig;
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind mode for POST /api/books (books.write-behind.enabled).
+ *
+ * A POST only validates the book, assigns its ID and puts it on a bounded queue,
+ * then returns 202. One background writer drains the queue into unordered bulk
+ * inserts of up to max-batch-size books, flushing when a batch is full or
+ * flush-interval-ms after its first book, so a burst of single-book POSTs costs
+ * one MongoDB round trip per batch instead of one per book.
+ *
+ * A full queue is rejected with 429 instead of growing the heap. If MongoDB is
+ * unreachable or times out the writer retries the same batch up to max-attempts
+ * times, so the queue fills up and clients are pushed back meanwhile; after that
+ * the books of the batch that did get stored are kept and the rest is dropped. Any other failure (e.g. a mapping error) is not retried:
+ * the batch is written one book at a time and only the books MongoDB rejects are
+ * dropped, so one bad book cannot block the queue. Dropped books are logged and
+ * counted in books.write-behind.dropped.
+ *
+ * Accepted books are only in memory until their batch is written: a crash loses
+ * them and GET /api/books/{id} returns 404 until then. Clients that need the
+ * write to be durable before the response send ?ack=durable (synchronous 201).
+ */
+@Component
+public class BookWriteBehindQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(BookWriteBehindQueue.class);
+
+    private static final String DUPLICATE_KEY = "E11000";
+
+    private final BookRepository bookRepository;
+    private final BookIdAllocator bookIdAllocator;
+    private final BookChangeLog bookChangeLog;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final BlockingQueue<Book> queue;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+    private final long retryDelayMs;
+    private final int maxAttempts;
+    private final Timer flushTimer;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private Thread worker;
+
+    public BookWriteBehindQueue(BookRepository bookRepository,
+                                BookIdAllocator bookIdAllocator,
+                                BookChangeLog bookChangeLog,
+                                CacheManager cacheManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${books.write-behind.enabled:false}") boolean enabled,
+                                @Value("${books.write-behind.queue-capacity:10000}") int queueCapacity,
+                                @Value("${books.write-behind.max-batch-size:500}") int maxBatchSize,
+                                @Value("${books.write-behind.flush-interval-ms:20}") long flushIntervalMs,
+                                @Value("${books.write-behind.retry-delay-ms:1000}") long retryDelayMs,
+                                @Value("${books.write-behind.max-attempts:10}") int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("books.write-behind.max-attempts must be at least 1");
+        }
+        this.bookRepository = bookRepository;
+        this.bookIdAllocator = bookIdAllocator;
+        this.bookChangeLog = bookChangeLog;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.retryDelayMs = retryDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.flushTimer = Timer.builder("books.write-behind.flush")
+                .description("Time to write one write-behind batch to MongoDB, retries included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dropped = Counter.builder("books.write-behind.dropped")
+                .description("Books accepted with 202 that were never written (rejected by MongoDB, or MongoDB unavailable for max-attempts)")
+                .register(meterRegistry);
+        Gauge.builder("books.write-behind.queue.size", queue, BlockingQueue::size)
+                .description("Books accepted with 202 and not yet written to MongoDB")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "book-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops accepting books and gives the writer time to flush what was already accepted
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread writer;
+        synchronized (this) {
+            stopping = true;
+            running = false;
+            writer = worker;
+        }
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (!queue.isEmpty()) {
+            log.error("Write-behind queue stopped with {} accepted books not written", queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assigns the book its ID and queues it for the background writer.
+     * @throws WriteQueueFullException when the queue is full or shutting down (the ID is released)
+     */
+    public Book enqueue(Book book) {
+        if (stopping) {
+            throw new WriteQueueFullException("Write queue is shutting down, retry later", retryDelayMs);
+        }
+        int id = bookIdAllocator.allocate();
+        if (id == BookIdAllocator.NO_FREE_ID) {
+            throw new RuntimeException("Maximum capacity reached");
+        }
+        book.setId(id);
+        if (!queue.offer(book)) {
+            bookIdAllocator.release(id);
+            throw new WriteQueueFullException("Write queue is full, retry later", flushIntervalMs);
+        }
+        // stop() may have begun after the check above and the writer may already be gone:
+        // take the book back unless the writer got it first
+        if (stopping && queue.remove(book)) {
+            bookIdAllocator.release(id);
+            throw new WriteQueueFullException("Write queue is shutting down, retry later", retryDelayMs);
+        }
+        return book;
+    }
+
+    private void run() {
+        // Keep flushing after stop() until everything accepted is written
+        while (running || !queue.isEmpty()) {
+            try {
+                flushOnce();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits up to flush-interval-ms for a first book, fills the batch for at most
+     * flush-interval-ms more, then writes it.
+     * @return the number of books taken from the queue
+     */
+    int flushOnce() throws InterruptedException {
+        Book first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<Book> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            Book next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        long start = System.nanoTime();
+        write(batch);
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return batch.size();
+    }
+
+    private void write(List<Book> batch) throws InterruptedException {
+        Map<Integer, String> failures;
+        boolean retried = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                failures = bookRepository.insertAllUnordered(batch);
+                break;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    log.warn("Write-behind batch of {} books failed, writing them one by one: {}",
+                            batch.size(), e.getMessage());
+                    writeOneByOne(batch, retried);
+                    return;
+                }
+                if (attempt >= maxAttempts) {
+                    giveUp(batch, "MongoDB unavailable after " + maxAttempts + " attempts: " + e.getMessage());
+                    return;
+                }
+                // The full queue pushes back on clients while MongoDB recovers
+                log.warn("Write-behind batch of {} books failed (attempt {} of {}), retrying in {} ms: {}",
+                        batch.size(), attempt, maxAttempts, retryDelayMs, e.getMessage());
+                retried = true;
+                Thread.sleep(retryDelayMs);
+            }
+        }
+
+        List<Book> written = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String failure = failures.get(i);
+            if (isWritten(failure, retried)) {
+                written.add(batch.get(i));
+            } else {
+                drop(batch.get(i), failure);
+            }
+        }
+        recordWritten(written);
+    }
+
+    /**
+     * Drops a batch MongoDB kept failing on. An attempt may still have stored part of it:
+     * books found in MongoDB are recorded as written, and IDs are only released for books
+     * known not to be stored, so a stored book's ID is never handed out again.
+     */
+    private void giveUp(List<Book> batch, String reason) {
+        Set<Integer> stored = new HashSet<>();
+        try {
+            List<Integer> ids = batch.stream().map(Book::getId).toList();
+            bookRepository.findIdsIn(ids).forEach(book -> stored.add(book.getId()));
+        } catch (RuntimeException e) {
+            log.warn("Could not check which of {} books were stored, keeping their IDs: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(book -> drop(book, reason, false));
+            return;
+        }
+        List<Book> written = new ArrayList<>(stored.size());
+        for (Book book : batch) {
+            if (stored.contains(book.getId())) {
+                written.add(book);
+            } else {
+                drop(book, reason, true);
+            }
+        }
+        recordWritten(written);
+    }
+
+    private void writeOneByOne(List<Book> batch, boolean retried) {
+        List<Book> written = new ArrayList<>(batch.size());
+        for (Book book : batch) {
+            try {
+                String failure = bookRepository.insertAllUnordered(List.of(book)).get(0);
+                if (isWritten(failure, retried)) {
+                    written.add(book);
+                } else {
+                    drop(book, failure);
+                }
+            } catch (RuntimeException e) {
+                drop(book, e.getMessage());
+            }
+        }
+        recordWritten(written);
+    }
+
+    /**
+     * A failed attempt may have stored part of the batch before the retry
+     */
+    private static boolean isWritten(String failure, boolean retried) {
+        return failure == null || (retried && failure.contains(DUPLICATE_KEY));
+    }
+
+    /**
+     * Failures worth retrying the same batch for: MongoDB unreachable, timed out or failing over
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException;
+    }
+
+    private void drop(Book book, String reason) {
+        drop(book, reason, true);
+    }
+
+    private void drop(Book book, String reason, boolean releaseId) {
+        log.error("Dropping accepted book {}: {}", book.getId(), reason);
+        if (releaseId) {
+            bookIdAllocator.release(book.getId());
+        }
+        dropped.increment();
+    }
+
+    private void recordWritten(List<Book> written) {
+        bookChangeLog.appendAll(written);
+        // GET /{id} before the write may have cached a miss for these IDs
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        if (books != null) {
+            written.forEach(book -> books.evict(book.getId()));
+        }
+    }
+}
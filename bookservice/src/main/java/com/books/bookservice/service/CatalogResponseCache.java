@@ -0,0 +1,156 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded GET /api/books response bodies, built once per catalog version.
+ *
+ * Every write bumps the catalog version, so the next read re-encodes the catalog
+ * (lazily, by one caller while the others wait) and every later read until the
+ * next write gets the same immutable byte arrays. Each format (JSON, Smile) and
+ * its gzipped form is only encoded the first time a client asks for it.
+ * Only the latest version is kept.
+ */
+@Component
+public class CatalogResponseCache {
+
+    public enum Format { JSON, SMILE }
+
+    private final BookService bookService;
+    private final BookChangeLog bookChangeLog;
+    private final ObjectWriter[] writers = new ObjectWriter[Format.values().length];
+    private final int minGzipSize;
+
+    private volatile EncodedCatalog current;
+
+    public CatalogResponseCache(BookService bookService,
+                                BookChangeLog bookChangeLog,
+                                ObjectMapper objectMapper,
+                                @Value("${server.compression.min-response-size:2KB}") DataSize minGzipSize) {
+        this.bookService = bookService;
+        this.bookChangeLog = bookChangeLog;
+        // Same Jackson settings as the HTTP message converters
+        this.writers[Format.JSON.ordinal()] = catalogWriter(objectMapper);
+        this.writers[Format.SMILE.ordinal()] = catalogWriter(objectMapper.copyWith(new SmileFactory()));
+        this.minGzipSize = (int) minGzipSize.toBytes();
+    }
+
+    /**
+     * The encoded catalog for {@code version} or a later one.
+     * Check {@link EncodedCatalog#getVersion()} for the version actually returned.
+     */
+    public EncodedCatalog get(long version) {
+        EncodedCatalog catalog = current;
+        if (catalog != null && catalog.version >= version) {
+            return catalog;
+        }
+        synchronized (this) {
+            catalog = current;
+            if (catalog != null && catalog.version >= version) {
+                return catalog;
+            }
+            // Version first, like GET /api/books: the books are at least as new as the version
+            long latest = bookChangeLog.getVersion();
+            catalog = new EncodedCatalog(latest, bookService.getAllBooks());
+            current = catalog;
+            return catalog;
+        }
+    }
+
+    /**
+     * One catalog version and its encodings. The arrays must not be modified.
+     */
+    public final class EncodedCatalog {
+        private final long version;
+        private final List<Book> books;
+        private final AtomicReferenceArray<byte[]> bodies = new AtomicReferenceArray<>(Format.values().length);
+        private final AtomicReferenceArray<byte[]> gzippedBodies = new AtomicReferenceArray<>(Format.values().length);
+
+        private EncodedCatalog(long version, List<Book> books) {
+            this.version = version;
+            this.books = books;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] body(Format format) {
+            byte[] body = bodies.get(format.ordinal());
+            if (body != null) {
+                return body;
+            }
+            synchronized (this) {
+                body = bodies.get(format.ordinal());
+                if (body == null) {
+                    body = encode(format);
+                    bodies.set(format.ordinal(), body);
+                }
+                return body;
+            }
+        }
+
+        /**
+         * @return the gzipped body, or null when the body is below
+         * server.compression.min-response-size and should be sent as is
+         */
+        public byte[] gzippedBody(Format format) {
+            byte[] body = body(format);
+            if (body.length < minGzipSize) {
+                return null;
+            }
+            byte[] gzipped = gzippedBodies.get(format.ordinal());
+            if (gzipped != null) {
+                return gzipped;
+            }
+            synchronized (this) {
+                gzipped = gzippedBodies.get(format.ordinal());
+                if (gzipped == null) {
+                    gzipped = gzip(body);
+                    gzippedBodies.set(format.ordinal(), gzipped);
+                }
+                return gzipped;
+            }
+        }
+
+        private byte[] encode(Format format) {
+            try {
+                return writers[format.ordinal()].writeValueAsBytes(books);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not encode the book catalog", e);
+            }
+        }
+    }
+
+    private static ObjectWriter catalogWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class));
+    }
+
+    /**
+     * Highest compression level: the cost is paid once per catalog version, not per request
+     */
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,189 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hi/lo allocator for book IDs (books.ids.allocation=hilo, the default).
+ *
+ * Each instance leases a block of books.ids.block-size IDs from a counter document
+ * in MongoDB with one atomic findAndModify ($inc), then hands them out locally with
+ * a single atomic increment. Blocks never overlap, so any number of bookservice
+ * instances can write behind a load balancer without handing out the same ID,
+ * and only one write in block-size pays a round trip for its ID.
+ *
+ * At startup the counter is moved ($max) past the highest existing ID, so books
+ * stored before the counter existed are never overwritten.
+ *
+ * IDs are not globally reused: a released ID goes back to this instance only, and
+ * the unused rest of a block is skipped when the instance stops. books.capacity
+ * therefore bounds the ID range, not the number of stored books.
+ */
+@Component
+@ConditionalOnProperty(name = "books.ids.allocation", havingValue = "hilo", matchIfMissing = true)
+public class HiLoBookIdAllocator implements BookIdAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(HiLoBookIdAllocator.class);
+
+    private final BookRepository bookRepository;
+    private final int capacity;
+    private final int blockSize;
+    private final Queue<Integer> released = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    private volatile Block block = new Block(0, 0);
+    // End of the last leased block: IDs below it are taken or held by an instance
+    private volatile long leasedUpTo;
+    private volatile boolean exhausted;
+    private volatile boolean loaded;
+
+    public HiLoBookIdAllocator(BookRepository bookRepository,
+                               @Value("${books.capacity:1000000}") int capacity,
+                               @Value("${books.ids.block-size:100}") int blockSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("books.capacity must be positive");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("books.ids.block-size must be positive");
+        }
+        this.bookRepository = bookRepository;
+        this.capacity = capacity;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Seeds the counter once the application is up.
+     * A failure here is not fatal: the next allocation retries.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Could not seed the book ID counter at startup, will retry on first write: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims the next ID of the local block, leasing a new block when it runs out.
+     * @return the claimed ID, or {@link #NO_FREE_ID} when the counter has reached capacity
+     */
+    @Override
+    public int allocate() {
+        ensureLoaded();
+        Integer reused = released.poll();
+        if (reused != null) {
+            allocated.incrementAndGet();
+            return reused;
+        }
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                allocated.incrementAndGet();
+                return (int) id;
+            }
+            synchronized (this) {
+                // Only the first thread to find the block empty leases the next one
+                if (block == current) {
+                    if (exhausted) {
+                        return NO_FREE_ID;
+                    }
+                    block = lease();
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the ID for the next local allocation; other instances never see it again.
+     */
+    @Override
+    public void release(int id) {
+        if (id < 0 || id >= capacity) {
+            return;
+        }
+        released.add(id);
+        allocated.decrementAndGet();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Books found at startup plus the net IDs handed out by this instance
+     */
+    @Override
+    public int getAllocatedCount() {
+        return allocated.get();
+    }
+
+    /**
+     * IDs never leased by any instance (as of this instance's last lease),
+     * plus those still unused in the local block
+     */
+    @Override
+    public int getRemainingCount() {
+        Block current = block;
+        long unused = Math.max(0, current.end - current.next.get());
+        return (int) (Math.max(0, capacity - leasedUpTo) + unused + released.size());
+    }
+
+    private Block lease() {
+        long end = bookRepository.reserveIds(blockSize);
+        long start = end - blockSize;
+        leasedUpTo = end;
+        if (start >= capacity) {
+            exhausted = true;
+            return new Block(0, 0);
+        }
+        return new Block(start, Math.min(end, capacity));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long next = bookRepository.findFirstByOrderByIdDesc()
+                    .map(Book::getId)
+                    .map(id -> id + 1L)
+                    .orElse(0L);
+            bookRepository.advanceIdCounter(next);
+            leasedUpTo = next;
+            allocated.set((int) bookRepository.count());
+            loaded = true;
+        }
+    }
+
+    /**
+     * IDs [next, end) of one leased block
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
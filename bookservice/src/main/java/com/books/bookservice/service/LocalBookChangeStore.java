@@ -0,0 +1,78 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.dto.BookChange;
+import com.books.bookservice.model.Book;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory change store (books.changes.store=local, the default).
+ *
+ * Versions restart with the process, so each instance has a random epoch that
+ * consumers send back to detect restarts. Only correct for a single bookservice
+ * instance: writes through another instance never reach this one. Recording a
+ * change costs no round trip to MongoDB.
+ */
+@Component
+@ConditionalOnProperty(name = "books.changes.store", havingValue = "local", matchIfMissing = true)
+public class LocalBookChangeStore implements BookChangeStore {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final int capacity;
+
+    // Guarded by this
+    private final Deque<BookChange> changes = new ArrayDeque<>();
+    private long version;
+
+    public LocalBookChangeStore(@Value("${books.changes.capacity:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("books.changes.capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized Head head() {
+        return new Head(epoch, version);
+    }
+
+    @Override
+    public synchronized List<BookChange> record(List<Book> books) {
+        List<BookChange> recorded = new ArrayList<>(books.size());
+        for (Book book : books) {
+            BookChange change = new BookChange(++version, BookChange.Type.UPSERT, book);
+            recorded.add(change);
+            changes.addLast(change);
+        }
+        while (changes.size() > capacity) {
+            changes.removeFirst();
+        }
+        return recorded;
+    }
+
+    @Override
+    public synchronized List<BookChange> findAfter(long version, int limit) {
+        List<BookChange> found = new ArrayList<>(Math.min(limit, changes.size()));
+        Iterator<BookChange> iterator = changes.iterator();
+        while (iterator.hasNext() && found.size() < limit) {
+            BookChange change = iterator.next();
+            if (change.getVersion() > version) {
+                found.add(change);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+}
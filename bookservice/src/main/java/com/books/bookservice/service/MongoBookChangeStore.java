@@ -0,0 +1,136 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.dto.BookChange;
+import com.books.bookservice.model.Book;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Change store shared by all bookservice instances on one database
+ * (books.changes.store=mongo, needed as soon as more than one instance writes).
+ *
+ * Versions come from a counter document in the counters collection, like the
+ * hi/lo book ID counter: one findAndModify ($inc) per recorded batch, followed by
+ * one insert of all its changes. Versions are a single order across instances, so
+ * they cannot be leased in blocks like book IDs: every write costs these two extra
+ * round trips on top of saving the books, which single-book saves feel the most
+ * (batch POSTs and the write-behind queue spread them over many books). The epoch is
+ * created with the counter and only changes when the counter is lost (e.g. a new
+ * database), so consumers survive restarts and load-balancer hops.
+ *
+ * Changes are stored in book_changes keyed by version; roughly the last
+ * books.changes.capacity of them are kept.
+ */
+@Component
+@ConditionalOnProperty(name = "books.changes.store", havingValue = "mongo")
+public class MongoBookChangeStore implements BookChangeStore {
+
+    private static final String COUNTERS_COLLECTION = "counters";
+    private static final String CHANGES_COLLECTION = "book_changes";
+    private static final String VERSION_COUNTER = "bookChanges";
+    private static final String NEXT_FIELD = "next";
+    private static final String EPOCH_FIELD = "epoch";
+
+    private final MongoTemplate mongoTemplate;
+    private final int capacity;
+    // Old changes are deleted once every pruneStep versions
+    private final long pruneStep;
+
+    public MongoBookChangeStore(MongoTemplate mongoTemplate,
+                                @Value("${books.changes.capacity:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("books.changes.capacity must be positive");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.capacity = capacity;
+        this.pruneStep = Math.max(1, capacity / 10);
+    }
+
+    @Override
+    public Head head() {
+        Document counter = mongoTemplate.findOne(versionCounter(), Document.class, COUNTERS_COLLECTION);
+        if (counter == null) {
+            counter = updateCounter(0);
+        }
+        return new Head(counter.getString(EPOCH_FIELD), counter.get(NEXT_FIELD, Number.class).longValue());
+    }
+
+    @Override
+    public List<BookChange> record(List<Book> books) {
+        long end = updateCounter(books.size()).get(NEXT_FIELD, Number.class).longValue();
+        long first = end - books.size() + 1;
+        List<BookChange> changes = new ArrayList<>(books.size());
+        List<Document> documents = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            BookChange change = new BookChange(first + i, BookChange.Type.UPSERT, books.get(i));
+            changes.add(change);
+            documents.add(toDocument(change));
+        }
+        mongoTemplate.insert(documents, CHANGES_COLLECTION);
+        if ((first - 1) / pruneStep != end / pruneStep) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").lte(end - capacity)), CHANGES_COLLECTION);
+        }
+        return changes;
+    }
+
+    @Override
+    public List<BookChange> findAfter(long version, int limit) {
+        Query query = Query.query(Criteria.where("_id").gt(version))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        List<BookChange> changes = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, CHANGES_COLLECTION)) {
+            changes.add(fromDocument(document));
+        }
+        return changes;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    /**
+     * Adds {@code count} to the counter, creating it with a new epoch on first use
+     */
+    private Document updateCounter(long count) {
+        return mongoTemplate.findAndModify(
+                versionCounter(),
+                new Update().inc(NEXT_FIELD, count).setOnInsert(EPOCH_FIELD, UUID.randomUUID().toString()),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class,
+                COUNTERS_COLLECTION);
+    }
+
+    private static Query versionCounter() {
+        return Query.query(Criteria.where("_id").is(VERSION_COUNTER));
+    }
+
+    private static Document toDocument(BookChange change) {
+        Book book = change.getBook();
+        return new Document("_id", change.getVersion())
+                .append("type", change.getType().name())
+                .append("bookId", book.getId())
+                .append("title", book.getTitle())
+                .append("rating", book.getRating());
+    }
+
+    private static BookChange fromDocument(Document document) {
+        Book book = new Book(document.getString("title"), document.getInteger("rating"));
+        book.setId(document.getInteger("bookId"));
+        return new BookChange(document.get("_id", Number.class).longValue(),
+                BookChange.Type.valueOf(document.getString("type")), book);
+    }
+}
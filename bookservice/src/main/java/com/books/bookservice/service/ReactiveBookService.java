@@ -0,0 +1,72 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.config.CacheConfig;
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.ReactiveBookRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of BookService for the /api/v2 endpoints.
+ * 
+ * Shares the ID allocator, change log and per-ID cache with BookService, so
+ * books written through either API get IDs from the same pool and show up in
+ * the same change feed.
+ */
+@Service
+public class ReactiveBookService {
+
+    private final ReactiveBookRepository bookRepository;
+    private final BookIdAllocator bookIdAllocator;
+    private final BookChangeLog bookChangeLog;
+    private final CacheManager cacheManager;
+
+    public ReactiveBookService(ReactiveBookRepository bookRepository,
+                               BookIdAllocator bookIdAllocator,
+                               BookChangeLog bookChangeLog,
+                               CacheManager cacheManager) {
+        this.bookRepository = bookRepository;
+        this.bookIdAllocator = bookIdAllocator;
+        this.bookChangeLog = bookChangeLog;
+        this.cacheManager = cacheManager;
+    }
+
+    public Flux<Book> getAllBooks() {
+        return bookRepository.findAllByOrderByIdAsc();
+    }
+
+    public Mono<Book> getBookById(Integer id) {
+        return bookRepository.findById(id);
+    }
+
+    /**
+     * Same rules as BookService.saveBook: the ID comes from the allocator (in memory,
+     * except for one blocking counter update per leased hi/lo block) and is released
+     * if the write fails.
+     */
+    public Mono<Book> saveBook(Book book) {
+        return Mono.defer(() -> {
+            int id = bookIdAllocator.allocate();
+            if (id == BookIdAllocator.NO_FREE_ID) {
+                return Mono.error(new RuntimeException("Maximum capacity reached"));
+            }
+            book.setId(id);
+            return bookRepository.save(book)
+                    .doOnError(e -> bookIdAllocator.release(id))
+                    // Recording the change may block on the shared change store
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(saved -> {
+                        bookChangeLog.append(saved);
+                        // Drop a cached miss for this ID left by the servlet API
+                        Cache books = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+                        if (books != null) {
+                            books.evict(saved.getId());
+                        }
+                    });
+        });
+    }
+}
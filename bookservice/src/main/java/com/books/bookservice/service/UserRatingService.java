@@ -0,0 +1,43 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.UserRating;
+import com.books.bookservice.repository.UserRatingRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+public class UserRatingService {
+
+    private final UserRatingRepository userRatingRepository;
+    private final BookService bookService;
+
+    public UserRatingService(UserRatingRepository userRatingRepository, BookService bookService) {
+        this.userRatingRepository = userRatingRepository;
+        this.bookService = bookService;
+    }
+
+    /**
+     * Records {@code rating} for the book, replacing the user's earlier rating of it.
+     * Empty when the book does not exist.
+     */
+    public Optional<UserRating> rateBook(Integer bookId, UserRating rating) {
+        // Cached lookup: rating a popular book does not re-read it from MongoDB
+        if (bookService.getBookById(bookId).isEmpty()) {
+            return Optional.empty();
+        }
+        rating.setBookId(bookId);
+        rating.setId(UserRating.idOf(rating.getUserId(), bookId));
+        rating.setRatedAt(Instant.now());
+        return Optional.of(userRatingRepository.save(rating));
+    }
+
+    /**
+     * Every rating, streamed from a cursor. The caller must close the stream.
+     */
+    public Stream<UserRating> streamAllRatings() {
+        return userRatingRepository.streamAllBy();
+    }
+}
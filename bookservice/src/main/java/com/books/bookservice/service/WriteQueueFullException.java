@@ -0,0 +1,19 @@
+package com.books.bookservice.service;
+
+/**
+ * The write-behind queue is full: the client should slow down and retry.
+ * Mapped to 429 with Retry-After.
+ */
+public class WriteQueueFullException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public WriteQueueFullException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
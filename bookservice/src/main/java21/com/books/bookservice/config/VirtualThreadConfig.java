@@ -0,0 +1,33 @@
+package com.books.bookservice.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling on virtual threads (one per request, no pool).
+ * 
+ * Only compiled with -Pjava21 and only active with spring.threads.virtual.enabled=true
+ * (the property Spring Boot 3.2 uses for the same feature, so this class can be
+ * dropped after an upgrade). Blocking Mongo calls then park the virtual thread
+ * instead of holding one of the server.tomcat.threads.max platform threads;
+ * the Mongo connection pool (maxPoolSize) still bounds concurrent queries.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,145 @@
+package com.books.bookservice.benchmark;
+
+import com.books.bookservice.config.GlobalExceptionHandler;
+import com.books.bookservice.controller.BookController;
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import com.books.bookservice.service.BitmapBookIdAllocator;
+import com.books.bookservice.service.BookChangeLog;
+import com.books.bookservice.service.BookService;
+import com.books.bookservice.service.BookTitleIndex;
+import com.books.bookservice.service.BookWriteBehindQueue;
+import com.books.bookservice.service.CatalogResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares N x POST /api/books against one POST /api/books/batch, and against
+ * N x POST /api/books in write-behind mode (timed until every book is written).
+ *
+ * MongoDB is replaced by a stub that parks for a fixed round-trip time per call,
+ * so the numbers show the effect of saving round trips, not Mongo's own speed.
+ *
+ * Run with: mvn test -Pbenchmark -Dbench.books=500 -Dbench.rttMicros=500
+ */
+class BatchIngestBenchmark {
+
+    private static final int BOOKS = Integer.getInteger("bench.books", 500);
+    private static final long RTT_MICROS = Long.getLong("bench.rttMicros", 500);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 5);
+
+    @Test
+    void singleItemVersusBatch() throws Exception {
+        String single = "{\"title\": \"Benchmark Book\", \"rating\": 7}";
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < BOOKS; i++) {
+            batch.append(i == 0 ? "" : ",").append(single);
+        }
+        String batchBody = batch.append(']').toString();
+
+        long bestSingle = Long.MAX_VALUE;
+        long bestBatch = Long.MAX_VALUE;
+        long bestWriteBehind = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            MockMvc mockMvc = newStack(false).mockMvc;
+            long start = System.nanoTime();
+            for (int i = 0; i < BOOKS; i++) {
+                mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON).content(single))
+                        .andExpect(status().isCreated());
+            }
+            bestSingle = Math.min(bestSingle, System.nanoTime() - start);
+
+            mockMvc = newStack(false).mockMvc;
+            start = System.nanoTime();
+            mockMvc.perform(post("/api/books/batch").contentType(MediaType.APPLICATION_JSON).content(batchBody))
+                    .andExpect(status().isCreated());
+            bestBatch = Math.min(bestBatch, System.nanoTime() - start);
+
+            Stack writeBehind = newStack(true);
+            start = System.nanoTime();
+            for (int i = 0; i < BOOKS; i++) {
+                writeBehind.mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON).content(single))
+                        .andExpect(status().isAccepted());
+            }
+            while (writeBehind.changeLog.getVersion() < BOOKS) {
+                Thread.onSpinWait();
+            }
+            bestWriteBehind = Math.min(bestWriteBehind, System.nanoTime() - start);
+            writeBehind.queue.stop();
+        }
+
+        System.out.printf("%n== Batch ingest: %d books, simulated Mongo RTT %d us (best of %d) ==%n",
+                BOOKS, RTT_MICROS, ROUNDS);
+        report("single-item POST x" + BOOKS, bestSingle);
+        report("batch POST x1", bestBatch);
+        report("write-behind POST x" + BOOKS, bestWriteBehind);
+        System.out.printf("speed-up: batch %.1fx, write-behind %.1fx%n",
+                (double) bestSingle / bestBatch, (double) bestSingle / bestWriteBehind);
+    }
+
+    private Stack newStack(boolean writeBehind) {
+        BookRepository repository = mock(BookRepository.class, withSettings().stubOnly());
+        when(repository.findAllIdsSorted()).thenAnswer(invocation -> roundTrip(Collections.emptyList()));
+        when(repository.save(any(Book.class))).thenAnswer(invocation -> roundTrip(invocation.getArgument(0)));
+        when(repository.insertAllUnordered(anyList())).thenAnswer(invocation -> roundTrip(Collections.emptyMap()));
+
+        BookChangeLog changeLog = new BookChangeLog(BOOKS);
+        BitmapBookIdAllocator allocator = new BitmapBookIdAllocator(repository, BOOKS);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookService service = new BookService(repository, allocator, changeLog,
+                Validation.buildDefaultValidatorFactory().getValidator(), meterRegistry, BOOKS, 1000);
+        BookWriteBehindQueue queue = new BookWriteBehindQueue(repository, allocator, changeLog,
+                new ConcurrentMapCacheManager(), meterRegistry, writeBehind, BOOKS, 500, 20, 1000, 10);
+        queue.start();
+        ObjectMapper objectMapper = new ObjectMapper();
+        CatalogResponseCache catalogResponseCache =
+                new CatalogResponseCache(service, changeLog, objectMapper, DataSize.ofKilobytes(2));
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new BookController(service, changeLog, catalogResponseCache, queue,
+                        new BookTitleIndex(repository, changeLog, 100), objectMapper, 100))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        return new Stack(mockMvc, changeLog, queue);
+    }
+
+    private static final class Stack {
+        private final MockMvc mockMvc;
+        private final BookChangeLog changeLog;
+        private final BookWriteBehindQueue queue;
+
+        private Stack(MockMvc mockMvc, BookChangeLog changeLog, BookWriteBehindQueue queue) {
+            this.mockMvc = mockMvc;
+            this.changeLog = changeLog;
+            this.queue = queue;
+        }
+    }
+
+    private static <T> T roundTrip(T result) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(RTT_MICROS));
+        return result;
+    }
+
+    private static void report(String label, long nanos) {
+        double millis = nanos / 1_000_000.0;
+        System.out.printf("%-28s %10.1f ms %12.0f books/s%n", label, millis, BOOKS / (millis / 1000.0));
+    }
+}
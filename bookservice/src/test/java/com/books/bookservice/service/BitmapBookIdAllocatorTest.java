@@ -0,0 +1,113 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BitmapBookIdAllocatorTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Test
+    void shouldHandOutLowestFreeIdAfterRebuild() {
+        // Given
+        when(bookRepository.findAllIdsSorted()).thenReturn(Arrays.asList(
+            createBookWithId(0), createBookWithId(1), createBookWithId(3)
+        ));
+        BitmapBookIdAllocator allocator = new BitmapBookIdAllocator(bookRepository, 5);
+
+        // When & Then
+        assertEquals(2, allocator.allocate());
+        assertEquals(4, allocator.allocate());
+        assertEquals(BookIdAllocator.NO_FREE_ID, allocator.allocate());
+        assertEquals(5, allocator.getAllocatedCount());
+    }
+
+    @Test
+    void shouldReuseReleasedId() {
+        // Given
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        BitmapBookIdAllocator allocator = new BitmapBookIdAllocator(bookRepository, 3);
+        allocator.allocate();
+        allocator.allocate();
+
+        // When
+        allocator.release(0);
+
+        // Then
+        assertEquals(0, allocator.allocate());
+        assertEquals(2, allocator.allocate());
+        assertEquals(3, allocator.getAllocatedCount());
+    }
+
+    @Test
+    void shouldFindIdReleasedBehindScanHint() {
+        // Given - three full words, so later scans start past them
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        BitmapBookIdAllocator allocator = new BitmapBookIdAllocator(bookRepository, 192);
+        allocator.allocate(192);
+        assertEquals(BookIdAllocator.NO_FREE_ID, allocator.allocate());
+
+        // When
+        allocator.release(130);
+        allocator.release(5);
+
+        // Then
+        assertEquals(5, allocator.allocate());
+        assertEquals(130, allocator.allocate());
+        assertEquals(BookIdAllocator.NO_FREE_ID, allocator.allocate());
+    }
+
+    @Test
+    void shouldNeverHandOutSameIdConcurrently() throws Exception {
+        // Given
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        int capacity = 1000;
+        BitmapBookIdAllocator allocator = new BitmapBookIdAllocator(bookRepository, capacity);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When - more attempts than slots
+        for (int i = 0; i < capacity + 200; i++) {
+            executor.submit(() -> {
+                start.await();
+                int id = allocator.allocate();
+                if (id != BookIdAllocator.NO_FREE_ID) {
+                    assertTrue(ids.add(id), "duplicate id " + id);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(capacity, ids.size());
+        assertEquals(capacity, allocator.getAllocatedCount());
+    }
+
+    private Book createBookWithId(Integer id) {
+        Book book = new Book("Book " + id, 5);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,191 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.dto.BookChange;
+import com.books.bookservice.dto.ChangeFeed;
+import com.books.bookservice.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookChangeLogTest {
+
+    @Test
+    void shouldReturnChangesSinceVersion() {
+        // Given
+        BookChangeLog changeLog = new BookChangeLog(10);
+        changeLog.append(createBookWithId(0));
+        changeLog.appendAll(Arrays.asList(createBookWithId(1), createBookWithId(2)));
+
+        // When
+        ChangeFeed feed = changeLog.changesSince(changeLog.getEpoch(), 1);
+
+        // Then
+        assertFalse(feed.isReset());
+        assertEquals(3, feed.getVersion());
+        assertEquals(2, feed.getChanges().size());
+        BookChange first = feed.getChanges().get(0);
+        assertEquals(2, first.getVersion());
+        assertEquals(1, first.getBook().getId());
+    }
+
+    @Test
+    void shouldAskForResetWhenVersionNoLongerRetained() {
+        // Given - ring of 2 after 4 writes keeps versions 3 and 4
+        BookChangeLog changeLog = new BookChangeLog(2);
+        for (int id = 0; id < 4; id++) {
+            changeLog.append(createBookWithId(id));
+        }
+
+        // When & Then
+        assertFalse(changeLog.changesSince(changeLog.getEpoch(), 2).isReset());
+        assertTrue(changeLog.changesSince(changeLog.getEpoch(), 1).isReset());
+    }
+
+    @Test
+    void shouldAskForResetAfterRestart() {
+        // Given
+        BookChangeLog changeLog = new BookChangeLog(10);
+        changeLog.append(createBookWithId(0));
+
+        // When & Then - other epoch, or a version this instance never issued
+        assertTrue(changeLog.changesSince("previous-epoch", 0).isReset());
+        assertTrue(changeLog.changesSince(changeLog.getEpoch(), 5).isReset());
+    }
+
+    @Test
+    void shouldWakeUpWaitersOnAppend() {
+        // Given
+        BookChangeLog changeLog = new BookChangeLog(10);
+        CompletableFuture<Void> waiter = changeLog.awaitChangeAfter(0);
+        assertFalse(waiter.isDone());
+
+        // When
+        changeLog.append(createBookWithId(0));
+
+        // Then
+        assertTrue(waiter.isDone());
+        assertTrue(changeLog.awaitChangeAfter(0).isDone());
+    }
+
+    @Test
+    void shouldServeWritesThroughAnotherInstance_WhenStoreIsShared() {
+        // Given - two instances on the same store
+        LocalBookChangeStore store = new LocalBookChangeStore(10);
+        BookChangeLog writer = new BookChangeLog(10, store, 0, 5000);
+        BookChangeLog reader = new BookChangeLog(10, store, 0, 5000);
+        assertEquals(0, reader.getVersion());
+        writer.appendAll(Arrays.asList(createBookWithId(0), createBookWithId(1)));
+
+        // When - a consumer that saw version 1 on the writer hops to the reader
+        ChangeFeed hop = reader.changesSince(writer.getEpoch(), 1);
+        ChangeFeed fromStart = reader.changesSince(writer.getEpoch(), 0);
+
+        // Then
+        assertEquals(writer.getEpoch(), reader.getEpoch());
+        assertFalse(hop.isReset());
+        assertEquals(2, hop.getVersion());
+        assertEquals(1, hop.getChanges().get(0).getBook().getId());
+        assertEquals(2, fromStart.getChanges().size());
+        assertEquals(2, reader.getVersion());
+    }
+
+    @Test
+    void shouldNotifyListeners_OfWritesThroughAnotherInstance() {
+        // Given
+        LocalBookChangeStore store = new LocalBookChangeStore(10);
+        BookChangeLog writer = new BookChangeLog(10, store, 0, 5000);
+        BookChangeLog reader = new BookChangeLog(10, store, 0, 5000);
+        AtomicInteger notified = new AtomicInteger();
+        reader.addListener(books -> notified.addAndGet(books.size()));
+        assertEquals(0, reader.getVersion());
+        writer.append(createBookWithId(0));
+
+        // When
+        reader.sync();
+
+        // Then
+        assertEquals(1, notified.get());
+        assertTrue(reader.awaitChangeAfter(0).isDone());
+    }
+
+    @Test
+    void shouldSkipMissingVersion_AfterGapTimeout() {
+        // Given - version 1 was issued but its change was never stored
+        BookChangeStore store = mock(BookChangeStore.class);
+        when(store.head()).thenReturn(new BookChangeStore.Head("epoch", 0), new BookChangeStore.Head("epoch", 3));
+        when(store.findAfter(anyLong(), anyInt())).thenReturn(List.of(
+                new BookChange(2, BookChange.Type.UPSERT, createBookWithId(2)),
+                new BookChange(3, BookChange.Type.UPSERT, createBookWithId(3))));
+        BookChangeLog changeLog = new BookChangeLog(10, store, 0, 0);
+        AtomicInteger resets = new AtomicInteger();
+        changeLog.addResetListener(resets::incrementAndGet);
+        assertEquals(0, changeLog.getVersion());
+
+        // When
+        changeLog.sync();
+
+        // Then - consumers from before the gap reload, later ones get the changes after it
+        assertEquals(3, changeLog.getVersion());
+        assertTrue(changeLog.changesSince("epoch", 0).isReset());
+        assertEquals(2, changeLog.changesSince("epoch", 1).getChanges().size());
+        assertEquals(1, resets.get());
+    }
+
+    @Test
+    void shouldResetConsumers_WhenStoreEpochChanges() {
+        // Given
+        BookChangeStore store = mock(BookChangeStore.class);
+        when(store.head()).thenReturn(new BookChangeStore.Head("old", 5), new BookChangeStore.Head("new", 0));
+        when(store.findAfter(anyLong(), anyInt())).thenReturn(List.of());
+        BookChangeLog changeLog = new BookChangeLog(10, store, 0, 5000);
+        CompletableFuture<Void> waiter = changeLog.awaitChangeAfter(changeLog.getVersion());
+
+        // When
+        changeLog.sync();
+
+        // Then
+        assertTrue(waiter.isDone());
+        assertEquals("new", changeLog.getEpoch());
+        assertTrue(changeLog.changesSince("old", 5).isReset());
+    }
+
+    @Test
+    void shouldRecordChangesLater_WhenStoreIsUnreachable() {
+        // Given
+        LocalBookChangeStore local = new LocalBookChangeStore(10);
+        BookChangeStore store = mock(BookChangeStore.class);
+        when(store.head()).thenAnswer(invocation -> local.head());
+        when(store.record(anyList()))
+                .thenThrow(new RuntimeException("MongoDB is down"))
+                .thenAnswer(invocation -> local.record(invocation.getArgument(0)));
+        when(store.findAfter(anyLong(), anyInt())).thenAnswer(
+                invocation -> local.findAfter(invocation.getArgument(0), invocation.getArgument(1)));
+        BookChangeLog changeLog = new BookChangeLog(10, store, 0, 5000);
+
+        // When
+        changeLog.append(createBookWithId(0));
+        long whileDown = changeLog.getVersion();
+        changeLog.sync();
+
+        // Then
+        assertEquals(0, whileDown);
+        assertEquals(1, changeLog.getVersion());
+        assertEquals(0, changeLog.changesSince(changeLog.getEpoch(), 0).getChanges().get(0).getBook().getId());
+    }
+
+    private Book createBookWithId(Integer id) {
+        Book book = new Book("Book " + id, 5);
+        book.setId(id);
+        return book;
+    }
+}
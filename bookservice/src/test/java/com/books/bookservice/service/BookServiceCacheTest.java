@@ -0,0 +1,146 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.config.CacheConfig;
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {BookService.class, BitmapBookIdAllocator.class, BookChangeLog.class,
+        LocalBookChangeStore.class, CacheConfig.class, SimpleMeterRegistry.class},
+        properties = {
+            "books.ids.allocation=bitmap",
+            "books.changes.store=local",
+            "spring.cache.type=caffeine",
+            "spring.cache.cache-names=books,topRatedBooks",
+            "spring.cache.caffeine.spec=maximumSize=100,expireAfterWrite=60s"
+        })
+@ImportAutoConfiguration({CacheAutoConfiguration.class, ValidationAutoConfiguration.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BookServiceCacheTest {
+
+    @MockBean
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookChangeLog bookChangeLog;
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        // Given
+        Book book = new Book("Cached Book", 7);
+        book.setId(3);
+        when(bookRepository.findById(3)).thenReturn(Optional.of(book));
+        when(bookRepository.findAll()).thenReturn(List.of(book));
+
+        // When
+        bookService.getBookById(3);
+        bookService.getBookById(3);
+        bookService.getAllBooks();
+        List<Book> result = bookService.getAllBooks();
+
+        // Then
+        assertEquals(1, result.size());
+        verify(bookRepository, times(1)).findById(3);
+        verify(bookRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldCacheMissingIdsUntilTheyAreSaved() {
+        // Given
+        when(bookRepository.findById(0)).thenReturn(Optional.empty());
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When - miss is cached
+        assertFalse(bookService.getBookById(0).isPresent());
+        assertFalse(bookService.getBookById(0).isPresent());
+        bookService.saveBook(new Book("New Book", 9));
+
+        // Then - the save replaced the cached miss
+        Optional<Book> result = bookService.getBookById(0);
+        assertTrue(result.isPresent());
+        assertEquals("New Book", result.get().getTitle());
+        verify(bookRepository, times(1)).findById(0);
+    }
+
+    @Test
+    void shouldEvictCachedMiss_WhenChangeLogPublishesWriteOfAnotherInstance() {
+        // Given
+        Book book = new Book("Remote Book", 6);
+        book.setId(5);
+        when(bookRepository.findById(5)).thenReturn(Optional.empty()).thenReturn(Optional.of(book));
+        assertFalse(bookService.getBookById(5).isPresent());
+
+        // When - the change log delivers a write that did not go through this BookService
+        bookChangeLog.append(book);
+
+        // Then
+        assertEquals("Remote Book", bookService.getBookById(5).orElseThrow().getTitle());
+        verify(bookRepository, times(2)).findById(5);
+    }
+
+    @Test
+    void shouldDropTopRatedListsOfOldVersions() {
+        // Given
+        Book book = new Book("Top Book", 10);
+        book.setId(0);
+        when(bookRepository.findByRatingGreaterThanEqualOrderByRatingDescIdAsc(anyInt(), any()))
+                .thenReturn(List.of(book));
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        bookService.getTopRated(5, null);
+        bookService.getTopRated(5, null);
+        bookService.getTopRated(10, 7);
+
+        // When
+        bookService.saveBook(new Book("New Book", 9));
+
+        // Then
+        verify(bookRepository, times(2)).findByRatingGreaterThanEqualOrderByRatingDescIdAsc(anyInt(), any());
+        Cache<?, ?> topRated = (Cache<?, ?>)
+                cacheManager.getCache(CacheConfig.TOP_RATED_CACHE).getNativeCache();
+        assertEquals(0, topRated.estimatedSize());
+        assertEquals(64, topRated.policy().eviction().orElseThrow().getMaximum());
+    }
+
+    @Test
+    void shouldReloadCatalogAfterSave() {
+        // Given
+        when(bookRepository.findAll()).thenReturn(Collections.emptyList());
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        bookService.getAllBooks();
+        bookService.saveBook(new Book("New Book", 9));
+        bookService.getAllBooks();
+
+        // Then
+        verify(bookRepository, times(2)).findAll();
+    }
+}
@@ -1,19 +1,31 @@
 package com.books.bookservice.service;
 
+import com.books.bookservice.dto.BatchItemResult;
+import com.books.bookservice.dto.BookPage;
 import com.books.bookservice.model.Book;
 import com.books.bookservice.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,9 +34,21 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
-    @InjectMocks
+    private BookChangeLog bookChangeLog;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private BookService bookService;
 
+    @BeforeEach
+    void setUp() {
+        bookChangeLog = new BookChangeLog(100);
+        meterRegistry = new SimpleMeterRegistry();
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        bookService = new BookService(bookRepository, new BitmapBookIdAllocator(bookRepository, 21), bookChangeLog,
+                validator, meterRegistry, 500, 100);
+    }
+
     @Test
     void shouldSaveBookSuccessfully() {
         // Given
@@ -46,6 +70,21 @@ class BookServiceTest {
         assertEquals("Test Book", result.getTitle());
         assertEquals(8, result.getRating());
         verify(bookRepository).save(inputBook);
+        assertEquals(1, bookChangeLog.getVersion());
+    }
+
+    @Test
+    void shouldTimeAllocationAndPersistenceSeparately() {
+        // Given
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        when(bookRepository.save(any(Book.class))).thenThrow(new RuntimeException("Write failed"));
+
+        // When
+        assertThrows(RuntimeException.class, () -> bookService.saveBook(new Book("Test Book", 8)));
+
+        // Then - the failed write is timed too
+        assertEquals(1, meterRegistry.get("books.save").tag("phase", "allocate").timer().count());
+        assertEquals(1, meterRegistry.get("books.save").tag("phase", "persist").timer().count());
     }
 
     @Test
@@ -71,6 +110,92 @@ class BookServiceTest {
         verify(bookRepository, never()).save(any());
     }
 
+    @Test
+    void shouldReleaseIdWhenSaveFails() {
+        // Given
+        when(bookRepository.findAllIdsSorted()).thenReturn(Arrays.asList(
+            createBookWithId(0), createBookWithId(1)
+        ));
+        when(bookRepository.save(any(Book.class)))
+            .thenThrow(new RuntimeException("Mongo down"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        assertThrows(RuntimeException.class, () -> bookService.saveBook(new Book("First", 5)));
+        Book result = bookService.saveBook(new Book("Second", 6));
+
+        // Then - the slot of the failed write is handed out again
+        assertEquals(2, result.getId());
+        verify(bookRepository, times(1)).findAllIdsSorted();
+    }
+
+    @Test
+    void shouldSaveBatchWithPerItemResults() {
+        // Given - 19 slots taken, so only two of the three valid books fit
+        List<Book> existing = new ArrayList<>();
+        for (int id = 0; id < 19; id++) {
+            existing.add(createBookWithId(id));
+        }
+        when(bookRepository.findAllIdsSorted()).thenReturn(existing);
+        when(bookRepository.insertAllUnordered(anyList())).thenReturn(Collections.emptyMap());
+
+        List<Book> batch = Arrays.asList(
+            new Book("First", 7),
+            new Book("", 5),
+            new Book("Second", 8),
+            new Book("Third", 9)
+        );
+
+        // When
+        List<BatchItemResult> results = bookService.saveBooks(batch);
+
+        // Then
+        assertEquals(4, results.size());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(19, results.get(0).getId());
+        assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("Title cannot be blank", results.get(1).getMessage());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(2).getStatus());
+        assertEquals(20, results.get(2).getId());
+        assertEquals(BatchItemResult.Status.FAILED, results.get(3).getStatus());
+        assertEquals("Maximum capacity reached", results.get(3).getMessage());
+        verify(bookRepository, times(1)).insertAllUnordered(anyList());
+    }
+
+    @Test
+    void shouldReleaseIdsOfBulkWriteFailures() {
+        // Given
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        when(bookRepository.insertAllUnordered(anyList()))
+            .thenReturn(Map.of(0, "E11000 duplicate key error"));
+
+        // When
+        List<BatchItemResult> results = bookService.saveBooks(Arrays.asList(
+            new Book("First", 7), new Book("Second", 8)
+        ));
+        Book next = new Book("Third", 9);
+        when(bookRepository.save(any(Book.class))).thenReturn(next);
+        bookService.saveBook(next);
+
+        // Then - ID 0 was given back and is reused by the next write
+        assertEquals(BatchItemResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(1).getStatus());
+        assertEquals(1, results.get(1).getId());
+        assertEquals(0, next.getId());
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() {
+        // Given
+        List<Book> batch = Collections.nCopies(501, new Book("Book", 5));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> bookService.saveBooks(batch));
+        assertEquals("Batch size cannot exceed 500 books", exception.getMessage());
+        verify(bookRepository, never()).insertAllUnordered(anyList());
+    }
+
     @Test
     void shouldReturnAllBooks() {
         // Given
@@ -89,6 +214,66 @@ class BookServiceTest {
         assertEquals("Book 2", result.get(1).getTitle());
     }
 
+    @Test
+    void shouldReturnPageWithNextCursor() {
+        // Given - one extra row is requested to detect the next page
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(3), any(Pageable.class))).thenReturn(Arrays.asList(
+            createBookWithId(4), createBookWithId(5), createBookWithId(7)
+        ));
+
+        // When
+        BookPage page = bookService.getBooksAfter(3, 2);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertEquals(5, page.getNextCursor());
+        verify(bookRepository).findByIdGreaterThanOrderByIdAsc(3, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutCursor() {
+        // Given
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(-1), any(Pageable.class))).thenReturn(Arrays.asList(
+            createBookWithId(0), createBookWithId(1)
+        ));
+
+        // When
+        BookPage page = bookService.getBooksAfter(null, 5);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectPageLimitOutOfRange() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> bookService.getBooksAfter(null, 101));
+        assertEquals("Limit must be between 1 and 100", exception.getMessage());
+    }
+
+    @Test
+    void shouldAskRepositoryForTopRatedPageOnly() {
+        // Given
+        when(bookRepository.findByRatingGreaterThanEqualOrderByRatingDescIdAsc(eq(7), any(Pageable.class)))
+            .thenReturn(Arrays.asList(createBookWithId(4), createBookWithId(2)));
+
+        // When
+        List<Book> result = bookService.getTopRated(2, 7);
+
+        // Then
+        assertEquals(2, result.size());
+        verify(bookRepository).findByRatingGreaterThanEqualOrderByRatingDescIdAsc(7, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void shouldRejectTopRatedArgumentsOutOfRange() {
+        assertThrows(RuntimeException.class, () -> bookService.getTopRated(0, null));
+        assertThrows(RuntimeException.class, () -> bookService.getTopRated(101, null));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> bookService.getTopRated(5, 11));
+        assertEquals("minRating must be between 1 and 10", exception.getMessage());
+    }
+
     @Test
     void shouldReturnBookById() {
         // Given
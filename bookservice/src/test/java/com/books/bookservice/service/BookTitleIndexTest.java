@@ -0,0 +1,118 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookTitleIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookChangeLog bookChangeLog;
+
+    private BookTitleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(
+                createBook(0, "Clean Code", 9),
+                createBook(1, "The Clean Coder", 8),
+                createBook(2, "Code Complete", 9),
+                createBook(3, "Refactoring", 7),
+                createBook(4, "Les Misérables", 6)
+        ));
+        bookChangeLog = new BookChangeLog(100);
+        index = new BookTitleIndex(bookRepository, bookChangeLog, 100);
+        index.warmUp();
+    }
+
+    @Test
+    void shouldMatchWordPrefixes_ForShortTokens() {
+        // When
+        List<Book> result = index.search("cl", 10);
+
+        // Then - "Clean Code" ranks first: same match, higher rating
+        assertEquals(List.of("Clean Code", "The Clean Coder"), titles(result));
+    }
+
+    @Test
+    void shouldRequireEveryToken() {
+        assertEquals(List.of("Clean Code", "The Clean Coder"), titles(index.search("clean cod", 10)));
+        assertEquals(List.of("Code Complete"), titles(index.search("code comp", 10)));
+    }
+
+    @Test
+    void shouldMatchSubstrings_ForLongerTokens() {
+        assertEquals(List.of("Refactoring"), titles(index.search("factor", 10)));
+    }
+
+    @Test
+    void shouldRankWholeTitleAndTitlePrefixFirst() {
+        // When
+        List<Book> result = index.search("code", 10);
+
+        // Then
+        assertEquals(List.of("Code Complete", "Clean Code", "The Clean Coder"), titles(result));
+    }
+
+    @Test
+    void shouldIgnoreCaseAccentsAndPunctuation() {
+        assertEquals(List.of("Les Misérables"), titles(index.search("  MISERABLES!", 10)));
+    }
+
+    @Test
+    void shouldRejectTrigramFalsePositives() {
+        // Given - "nan" and "ana" both occur in "banana", "nanan" does not
+        bookChangeLog.append(createBook(5, "Banana", 5));
+
+        // When & Then
+        assertTrue(index.search("nanan", 10).isEmpty());
+        assertEquals(List.of("Banana"), titles(index.search("anana", 10)));
+    }
+
+    @Test
+    void shouldHonourLimit() {
+        assertEquals(1, index.search("c", 1).size());
+    }
+
+    @Test
+    void shouldIndexBooksAppendedToChangeLog() {
+        // When
+        bookChangeLog.append(createBook(5, "Clean Architecture", 10));
+
+        // Then - no second load from MongoDB
+        assertEquals("Clean Architecture", index.search("clean", 10).get(0).getTitle());
+        verify(bookRepository, times(1)).streamAllByOrderByIdAsc();
+    }
+
+    @Test
+    void shouldRejectEmptyQueryAndBadLimit() {
+        assertThrows(RuntimeException.class, () -> index.search(" - ", 10));
+        assertThrows(RuntimeException.class, () -> index.search("code", 0));
+        assertThrows(RuntimeException.class, () -> index.search("code", 101));
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).toList();
+    }
+
+    private static Book createBook(int id, String title, int rating) {
+        Book book = new Book(title, rating);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,233 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.config.CacheConfig;
+import com.books.bookservice.dto.BookChange;
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookWriteBehindQueueTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BitmapBookIdAllocator bookIdAllocator;
+
+    private BookChangeLog bookChangeLog;
+
+    private CacheManager cacheManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        bookIdAllocator = new BitmapBookIdAllocator(bookRepository, 10);
+        bookChangeLog = new BookChangeLog(100);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldAssignIdWithoutWritingToMongo() {
+        // Given
+        BookWriteBehindQueue queue = newQueue(10, 500);
+
+        // When
+        Book accepted = queue.enqueue(new Book("Queued Book", 7));
+
+        // Then
+        assertEquals(0, accepted.getId());
+        verify(bookRepository, never()).insertAllUnordered(anyList());
+        assertEquals(0, bookChangeLog.getVersion());
+    }
+
+    @Test
+    void shouldRejectAndReleaseId_WhenQueueIsFull() {
+        // Given
+        BookWriteBehindQueue queue = newQueue(2, 500);
+        queue.enqueue(new Book("First", 5));
+        queue.enqueue(new Book("Second", 5));
+
+        // When & Then
+        assertThrows(WriteQueueFullException.class, () -> queue.enqueue(new Book("Third", 5)));
+        assertEquals(2, bookIdAllocator.getAllocatedCount());
+    }
+
+    @Test
+    void shouldWriteQueuedBooksWithOneBulkInsert() throws Exception {
+        // Given
+        when(bookRepository.insertAllUnordered(anyList())).thenReturn(Collections.emptyMap());
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        // A read before the write caches a miss for the new ID
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).put(0, Optional.empty());
+        for (int i = 0; i < 3; i++) {
+            queue.enqueue(new Book("Book " + i, 5));
+        }
+
+        // When
+        int written = queue.flushOnce();
+
+        // Then
+        assertEquals(3, written);
+        verify(bookRepository, times(1)).insertAllUnordered(argThat(books -> books.size() == 3));
+        assertEquals(3, bookChangeLog.getVersion());
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(0));
+    }
+
+    @Test
+    void shouldSplitQueueIntoBatchesOfMaxSize() throws Exception {
+        // Given
+        when(bookRepository.insertAllUnordered(anyList())).thenReturn(Collections.emptyMap());
+        BookWriteBehindQueue queue = newQueue(10, 2);
+        for (int i = 0; i < 3; i++) {
+            queue.enqueue(new Book("Book " + i, 5));
+        }
+
+        // When & Then
+        assertEquals(2, queue.flushOnce());
+        assertEquals(1, queue.flushOnce());
+        assertEquals(0, queue.flushOnce());
+    }
+
+    @Test
+    void shouldRetryFailedBatchAndKeepBooksWrittenBeforeTheFailure() throws Exception {
+        // Given - the first attempt stored book 0 before failing
+        when(bookRepository.insertAllUnordered(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"))
+                .thenReturn(Map.of(0, "E11000 duplicate key error", 1, "Document failed validation"));
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        queue.enqueue(new Book("Stored", 5));
+        queue.enqueue(new Book("Rejected", 5));
+
+        // When
+        queue.flushOnce();
+
+        // Then
+        verify(bookRepository, times(2)).insertAllUnordered(anyList());
+        assertEquals(1, bookChangeLog.getVersion());
+        List<Book> changed = bookChangeLog.changesSince(null, 0).getChanges().stream()
+                .map(BookChange::getBook)
+                .toList();
+        assertEquals("Stored", changed.get(0).getTitle());
+        assertEquals(1, bookIdAllocator.getAllocatedCount());
+    }
+
+    @Test
+    void shouldWriteOneByOne_WhenBatchFailsWithNonTransientError() throws Exception {
+        // Given - a mapping error on one book fails the whole bulk call
+        Book bad = new Book("Bad", 5);
+        when(bookRepository.insertAllUnordered(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            if (books.contains(bad)) {
+                throw new IllegalStateException("cannot map book");
+            }
+            return Collections.emptyMap();
+        });
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        queue.enqueue(new Book("Good", 5));
+        queue.enqueue(bad);
+
+        // When
+        queue.flushOnce();
+
+        // Then - no retry of the same batch, only the bad book is dropped
+        verify(bookRepository, times(3)).insertAllUnordered(anyList());
+        assertEquals(1, bookChangeLog.getVersion());
+        assertEquals(1, bookIdAllocator.getAllocatedCount());
+        assertEquals(1.0, meterRegistry.get("books.write-behind.dropped").counter().count());
+    }
+
+    @Test
+    void shouldDropBatch_WhenMongoStaysUnavailable() throws Exception {
+        // Given
+        when(bookRepository.insertAllUnordered(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("timed out"));
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        queue.enqueue(new Book("First", 5));
+        queue.enqueue(new Book("Second", 5));
+
+        // When
+        queue.flushOnce();
+
+        // Then
+        verify(bookRepository, times(3)).insertAllUnordered(anyList());
+        assertEquals(0, bookChangeLog.getVersion());
+        assertEquals(0, bookIdAllocator.getAllocatedCount());
+        assertEquals(2.0, meterRegistry.get("books.write-behind.dropped").counter().count());
+    }
+
+    @Test
+    void shouldKeepBooksStoredByFailedAttempts_WhenDroppingBatch() throws Exception {
+        // Given: an attempt stored the first book before timing out
+        when(bookRepository.insertAllUnordered(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("timed out"));
+        Book stored = new Book();
+        stored.setId(0);
+        when(bookRepository.findIdsIn(List.of(0, 1))).thenReturn(List.of(stored));
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        queue.enqueue(new Book("First", 5));
+        queue.enqueue(new Book("Second", 5));
+
+        // When
+        queue.flushOnce();
+
+        // Then
+        assertEquals(1, bookChangeLog.getVersion());
+        assertEquals(1, bookIdAllocator.getAllocatedCount());
+        assertEquals(1.0, meterRegistry.get("books.write-behind.dropped").counter().count());
+    }
+
+    @Test
+    void shouldKeepIds_WhenStoredBooksCannotBeChecked() throws Exception {
+        // Given
+        when(bookRepository.insertAllUnordered(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("timed out"));
+        when(bookRepository.findIdsIn(anyList())).thenThrow(new DataAccessResourceFailureException("timed out"));
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        queue.enqueue(new Book("First", 5));
+        queue.enqueue(new Book("Second", 5));
+
+        // When
+        queue.flushOnce();
+
+        // Then: a book that may be stored never gets its ID handed out again
+        assertEquals(2, bookIdAllocator.getAllocatedCount());
+        assertEquals(2.0, meterRegistry.get("books.write-behind.dropped").counter().count());
+    }
+
+    @Test
+    void shouldRejectBooks_OnceStopped() throws Exception {
+        // Given
+        bookIdAllocator.warmUp();
+        BookWriteBehindQueue queue = newQueue(10, 500);
+        queue.stop();
+
+        // When & Then
+        assertThrows(WriteQueueFullException.class, () -> queue.enqueue(new Book("Late", 5)));
+        assertEquals(0, bookIdAllocator.getAllocatedCount());
+    }
+
+    private BookWriteBehindQueue newQueue(int capacity, int maxBatchSize) {
+        return new BookWriteBehindQueue(bookRepository, bookIdAllocator, bookChangeLog, cacheManager,
+                meterRegistry, true, capacity, maxBatchSize, 1, 1, 3);
+    }
+}
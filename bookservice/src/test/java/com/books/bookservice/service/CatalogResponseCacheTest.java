@@ -0,0 +1,118 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogResponseCacheTest {
+
+    private static final TypeReference<List<Book>> BOOK_LIST = new TypeReference<>() {};
+
+    @Mock
+    private BookService bookService;
+
+    private BookChangeLog bookChangeLog;
+
+    private ObjectMapper objectMapper;
+
+    private CatalogResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        bookChangeLog = new BookChangeLog(100);
+        objectMapper = new ObjectMapper();
+        cache = new CatalogResponseCache(bookService, bookChangeLog, objectMapper, DataSize.ofBytes(100));
+    }
+
+    @Test
+    void shouldEncodeOncePerVersion() throws Exception {
+        // Given
+        when(bookService.getAllBooks()).thenReturn(books(1));
+
+        // When
+        byte[] first = cache.get(0).body(CatalogResponseCache.Format.JSON);
+        byte[] second = cache.get(0).body(CatalogResponseCache.Format.JSON);
+
+        // Then
+        assertSame(first, second);
+        assertEquals("Book 0", objectMapper.readValue(first, BOOK_LIST).get(0).getTitle());
+        verify(bookService, times(1)).getAllBooks();
+    }
+
+    @Test
+    void shouldRebuildAfterWrite() throws Exception {
+        // Given
+        when(bookService.getAllBooks()).thenReturn(books(1)).thenReturn(books(2));
+        cache.get(0).body(CatalogResponseCache.Format.JSON);
+
+        // When
+        bookChangeLog.append(book(1));
+        CatalogResponseCache.EncodedCatalog catalog = cache.get(bookChangeLog.getVersion());
+
+        // Then
+        assertEquals(1, catalog.getVersion());
+        assertEquals(2, objectMapper.readValue(catalog.body(CatalogResponseCache.Format.JSON), BOOK_LIST).size());
+        // A request that read the old version is served the newer catalog, not a rebuild
+        assertSame(catalog, cache.get(0));
+        verify(bookService, times(2)).getAllBooks();
+    }
+
+    @Test
+    void shouldServeSmileAndGzipVariants() throws Exception {
+        // Given
+        when(bookService.getAllBooks()).thenReturn(books(20));
+        CatalogResponseCache.EncodedCatalog catalog = cache.get(0);
+
+        // When
+        byte[] json = catalog.body(CatalogResponseCache.Format.JSON);
+        byte[] gzipped = catalog.gzippedBody(CatalogResponseCache.Format.JSON);
+        byte[] smile = catalog.body(CatalogResponseCache.Format.SMILE);
+
+        // Then
+        assertArrayEquals(json, new GZIPInputStream(new ByteArrayInputStream(gzipped)).readAllBytes());
+        assertSame(gzipped, catalog.gzippedBody(CatalogResponseCache.Format.JSON));
+        assertEquals(20, new ObjectMapper(new SmileFactory()).readValue(smile, BOOK_LIST).size());
+        assertTrue(smile.length < json.length);
+    }
+
+    @Test
+    void shouldNotGzipSmallBodies() {
+        // Given
+        when(bookService.getAllBooks()).thenReturn(List.of());
+
+        // When / Then
+        assertNull(cache.get(0).gzippedBody(CatalogResponseCache.Format.JSON));
+    }
+
+    private static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>();
+        for (int id = 0; id < count; id++) {
+            books.add(book(id));
+        }
+        return books;
+    }
+
+    private static Book book(int id) {
+        Book book = new Book("Book " + id, id % 10 + 1);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,137 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HiLoBookIdAllocatorTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Test
+    void shouldSeedCounterPastHighestExistingId() {
+        // Given
+        when(bookRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(createBookWithId(41)));
+        when(bookRepository.count()).thenReturn(3L);
+        when(bookRepository.reserveIds(10)).thenReturn(52L);
+        HiLoBookIdAllocator allocator = new HiLoBookIdAllocator(bookRepository, 1000, 10);
+
+        // When
+        allocator.warmUp();
+
+        // Then
+        verify(bookRepository).advanceIdCounter(42);
+        assertEquals(42, allocator.allocate());
+        assertEquals(4, allocator.getAllocatedCount());
+    }
+
+    @Test
+    void shouldHandOutWholeBlockWithOneCounterUpdate() {
+        // Given
+        givenCounter(new AtomicLong());
+        HiLoBookIdAllocator allocator = new HiLoBookIdAllocator(bookRepository, 1000, 10);
+
+        // When
+        int[] ids = allocator.allocate(25);
+
+        // Then - three blocks: [0, 10), [10, 20), [20, 30)
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i, ids[i]);
+        }
+        verify(bookRepository, times(3)).reserveIds(10);
+        assertEquals(975, allocator.getRemainingCount());
+    }
+
+    @Test
+    void shouldStopAtCapacity() {
+        // Given
+        givenCounter(new AtomicLong());
+        HiLoBookIdAllocator allocator = new HiLoBookIdAllocator(bookRepository, 15, 10);
+
+        // When
+        int[] ids = allocator.allocate(20);
+
+        // Then
+        assertEquals(15, ids.length);
+        assertEquals(14, ids[14]);
+        assertEquals(BookIdAllocator.NO_FREE_ID, allocator.allocate());
+        assertEquals(0, allocator.getRemainingCount());
+    }
+
+    @Test
+    void shouldReuseReleasedIdLocally() {
+        // Given
+        givenCounter(new AtomicLong());
+        HiLoBookIdAllocator allocator = new HiLoBookIdAllocator(bookRepository, 1000, 10);
+        allocator.allocate(3);
+
+        // When
+        allocator.release(1);
+
+        // Then
+        assertEquals(1, allocator.allocate());
+        assertEquals(3, allocator.allocate());
+    }
+
+    @Test
+    void shouldNeverHandOutSameIdAcrossInstances() throws Exception {
+        // Given - two instances sharing one counter
+        AtomicLong counter = new AtomicLong();
+        givenCounter(counter);
+        HiLoBookIdAllocator first = new HiLoBookIdAllocator(bookRepository, 100_000, 7);
+        HiLoBookIdAllocator second = new HiLoBookIdAllocator(bookRepository, 100_000, 7);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        for (int i = 0; i < 2000; i++) {
+            HiLoBookIdAllocator allocator = i % 2 == 0 ? first : second;
+            executor.submit(() -> {
+                start.await();
+                int id = allocator.allocate();
+                assertTrue(ids.add(id), "duplicate id " + id);
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(2000, ids.size());
+    }
+
+    private void givenCounter(AtomicLong counter) {
+        when(bookRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        doAnswer(invocation -> counter.accumulateAndGet(invocation.getArgument(0), Math::max))
+                .when(bookRepository).advanceIdCounter(anyLong());
+        when(bookRepository.reserveIds(anyInt()))
+                .thenAnswer(invocation -> counter.addAndGet(invocation.<Integer>getArgument(0)));
+    }
+
+    private Book createBookWithId(Integer id) {
+        Book book = new Book("Book " + id, 5);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,98 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.config.CacheConfig;
+import com.books.bookservice.model.Book;
+import com.books.bookservice.repository.BookRepository;
+import com.books.bookservice.repository.ReactiveBookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookServiceTest {
+
+    @Mock
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookIdAllocator bookIdAllocator;
+    private BookChangeLog bookChangeLog;
+    private ConcurrentMapCacheManager cacheManager;
+    private ReactiveBookService reactiveBookService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bookRepository.findAllIdsSorted()).thenReturn(Collections.emptyList());
+        bookIdAllocator = new BitmapBookIdAllocator(bookRepository, 2);
+        bookChangeLog = new BookChangeLog(100);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE);
+        reactiveBookService = new ReactiveBookService(reactiveBookRepository, bookIdAllocator, bookChangeLog, cacheManager);
+    }
+
+    @Test
+    void shouldSaveBookWithAllocatedId() {
+        // Given
+        when(reactiveBookRepository.save(any(Book.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).put(0, Optional.empty());
+
+        // When
+        Book saved = reactiveBookService.saveBook(new Book("Reactive Book", 7)).block();
+
+        // Then
+        assertNotNull(saved);
+        assertEquals(0, saved.getId());
+        assertEquals(1, bookChangeLog.getVersion());
+        assertNull(cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(0));
+    }
+
+    @Test
+    void shouldReleaseId_WhenSaveFails() {
+        // Given
+        when(reactiveBookRepository.save(any(Book.class))).thenReturn(Mono.error(new RuntimeException("Write failed")));
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> reactiveBookService.saveBook(new Book("Reactive Book", 7)).block());
+
+        // Then
+        assertEquals("Write failed", error.getMessage());
+        assertEquals(0, bookIdAllocator.getAllocatedCount());
+        assertEquals(0, bookChangeLog.getVersion());
+    }
+
+    @Test
+    void shouldFail_WhenCapacityReached() {
+        // Given
+        bookIdAllocator.allocate(2);
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> reactiveBookService.saveBook(new Book("Reactive Book", 7)).block());
+
+        // Then
+        assertEquals("Maximum capacity reached", error.getMessage());
+        verify(reactiveBookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void shouldAllocateNothing_UntilSubscribed() {
+        // When
+        reactiveBookService.saveBook(new Book("Reactive Book", 7));
+
+        // Then
+        assertEquals(0, bookIdAllocator.getAllocatedCount());
+    }
+}
@@ -0,0 +1,63 @@
+package com.books.bookservice.service;
+
+import com.books.bookservice.model.Book;
+import com.books.bookservice.model.UserRating;
+import com.books.bookservice.repository.UserRatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserRatingServiceTest {
+
+    @Mock
+    private UserRatingRepository userRatingRepository;
+
+    @Mock
+    private BookService bookService;
+
+    private UserRatingService userRatingService;
+
+    @BeforeEach
+    void setUp() {
+        userRatingService = new UserRatingService(userRatingRepository, bookService);
+    }
+
+    @Test
+    void shouldKeyRatingByUserAndBook_SoRatingAgainReplacesIt() {
+        // Given
+        when(bookService.getBookById(7)).thenReturn(Optional.of(new Book("Clean Code", 9)));
+        when(userRatingRepository.save(any(UserRating.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        UserRating first = userRatingService.rateBook(7, new UserRating("alice", 4)).orElseThrow();
+        UserRating second = userRatingService.rateBook(7, new UserRating("alice", 9)).orElseThrow();
+
+        // Then
+        assertEquals("alice:7", first.getId());
+        assertEquals(first.getId(), second.getId());
+        assertEquals(7, second.getBookId());
+        assertNotNull(second.getRatedAt());
+    }
+
+    @Test
+    void shouldNotStoreRating_WhenBookDoesNotExist() {
+        // Given
+        when(bookService.getBookById(99)).thenReturn(Optional.empty());
+
+        // When
+        Optional<UserRating> result = userRatingService.rateBook(99, new UserRating("alice", 8));
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(userRatingRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,82 @@
+#!/bin/bash
+# Time to first successful request, from "java" to the first 200, for the default
+# executable jar and for the -Pstartup build (Spring AOT, AppCDS archive, "lazy" profile).
+#
+#   (cd bookservice && mvn -Pstartup package -DskipTests)
+#   ./measure-startup.sh bookservice [runs]
+#
+# bookservice needs MongoDB; recommendedservice needs a running bookservice.
+
+set -e
+
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+SERVICE="${1:-bookservice}"
+RUNS="${2:-5}"
+
+case "$SERVICE" in
+    bookservice)
+        URL="http://localhost:8080/api/books?limit=1"
+        ;;
+    recommendedservice)
+        URL="http://localhost:8081/api/recommended?limit=1"
+        ;;
+    *)
+        echo -e "${RED}Unknown service: $SERVICE${NC} (bookservice or recommendedservice)"
+        exit 1
+        ;;
+esac
+
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+TARGET="$ROOT/$SERVICE/target"
+JAR="$SERVICE-0.0.1-SNAPSHOT"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if [ ! -f "$TARGET/cds/app.jsa" ]; then
+    echo -e "${RED}No AppCDS archive in $TARGET/cds.${NC} Build first: (cd $SERVICE && mvn -Pstartup package -DskipTests)"
+    exit 1
+fi
+
+# Milliseconds from launching the JVM until $URL answers 200; the JVM is stopped afterwards
+time_to_first_request() {
+    local dir="$1"
+    shift
+    local start pid elapsed
+    start=$(date +%s%N)
+    (cd "$dir" && exec "$JAVA" "$@" > /dev/null 2>&1) &
+    pid=$!
+    until curl -sf -o /dev/null --max-time 2 "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo -e "${RED}$SERVICE exited before answering${NC}: $*" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+measure() {
+    local label="$1"
+    shift
+    local times=()
+    for _ in $(seq 1 "$RUNS"); do
+        times+=("$(time_to_first_request "$@")")
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf "%-28s median %6d ms   min %6d ms   (%s)\n" "$label" \
+        "${sorted[$(( RUNS / 2 ))]}" "${sorted[0]}" "${times[*]}"
+}
+
+echo -e "${BLUE}$SERVICE: time to first successful GET $URL, $RUNS runs each${NC}"
+measure "before: java -jar"        "$TARGET" -jar "$JAR.jar"
+measure "AOT"                      "$TARGET/cds" -Dspring.aot.enabled=true -jar "$JAR-cds.jar"
+measure "AOT + AppCDS"             "$TARGET/cds" -XX:SharedArchiveFile=app.jsa -Xlog:cds=error \
+                                   -Dspring.aot.enabled=true -jar "$JAR-cds.jar"
+measure "after: AOT + AppCDS + lazy" "$TARGET/cds" -XX:SharedArchiveFile=app.jsa -Xlog:cds=error \
+                                   -Dspring.aot.enabled=true -Dspring.profiles.active=lazy -jar "$JAR-cds.jar"
@@ -0,0 +1,56 @@
+package com.books.recommendedservice.jmh;
+
+import com.books.recommendedservice.dto.BookDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson deserialization of the bookservice catalog into List<BookDto>,
+ * and serialization of the /api/recommended response
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookDtoJsonBenchmark {
+
+    @Param({"21", "1000", "100000"})
+    public int books;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<BookDto> catalog;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TypeReference<List<BookDto>> type = new TypeReference<>() {};
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        catalog = new ArrayList<>(books);
+        for (int id = 0; id < books; id++) {
+            catalog.add(new BookDto(id, "Benchmark Book " + id, id % 10 + 1));
+        }
+        json = writer.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public List<BookDto> deserialize() throws Exception {
+        return reader.readValue(json);
+    }
+}
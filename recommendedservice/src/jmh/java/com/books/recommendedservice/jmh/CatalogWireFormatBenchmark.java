@@ -0,0 +1,79 @@
+package com.books.recommendedservice.jmh;
+
+import com.books.recommendedservice.dto.BookDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU time per catalog transfer between bookservice and recommendedservice,
+ * JSON vs Smile: encode (bookservice), decode (BookServiceClient) and both.
+ * 
+ * Bytes on the wire, plain and gzipped, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogWireFormatBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    @Param({"1000", "100000"})
+    public int books;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<BookDto> catalog;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = format.equals("smile") ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+        TypeReference<List<BookDto>> type = new TypeReference<>() {};
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        catalog = new ArrayList<>(books);
+        for (int id = 0; id < books; id++) {
+            catalog.add(new BookDto(id, "Benchmark Book " + id, id % 10 + 1));
+        }
+        encoded = writer.writeValueAsBytes(catalog);
+        System.out.printf("%n%s, %d books: %d bytes, %d bytes gzipped%n",
+                format, books, encoded.length, gzippedSize(encoded));
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return writer.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public List<BookDto> decode() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    @Benchmark
+    public List<BookDto> transfer() throws Exception {
+        return reader.readValue(writer.writeValueAsBytes(catalog));
+    }
+
+    private static int gzippedSize(byte[] data) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+}
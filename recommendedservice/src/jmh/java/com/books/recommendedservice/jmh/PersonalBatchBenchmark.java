@@ -0,0 +1,64 @@
+package com.books.recommendedservice.jmh;
+
+import com.books.recommendedservice.service.ItemItemRecommender;
+import com.books.recommendedservice.service.RatingMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch runtime of the per-user recommendations (ItemItemRecommender) against
+ * ForkJoin parallelism and catalog/user size. Every user rates 20 books, drawn
+ * with a popularity skew (a few books are rated by many users), which is what
+ * makes the similarity pass expensive.
+ * 
+ * Scaling needs as many cores as threads: -p threads=1,2,4,8 on the target machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersonalBatchBenchmark {
+
+    private static final int RATINGS_PER_USER = 20;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"1000", "10000"})
+    public int books;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private RatingMatrix matrix;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        RatingMatrix.Builder builder = RatingMatrix.builder();
+        for (int user = 0; user < users; user++) {
+            for (int n = 0; n < RATINGS_PER_USER; n++) {
+                double u = random.nextDouble();
+                builder.add("user-" + user, (int) (books * u * u), random.nextInt(1, 11));
+            }
+        }
+        matrix = builder.build();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[][] batch() {
+        return new ItemItemRecommender(pool, 20, 50).recommend(matrix);
+    }
+}
@@ -0,0 +1,69 @@
+package com.books.recommendedservice.jmh;
+
+import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.service.RatingIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Ranking cost behind GET /api/recommended for catalogs from 20 to 1M books.
+ * 
+ * - comparatorSort: the previous implementation (stream sort by rating, descending)
+ * - indexRebuild: what RecommendedService does when a new catalog arrives (bucket + take all)
+ * - indexTopAll / indexTop10: steady state, index already built (replica or unchanged catalog)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({"20", "1000", "100000", "1000000"})
+    public int books;
+
+    private List<BookDto> catalog;
+    private RatingIndex builtIndex;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        catalog = new ArrayList<>(books);
+        for (int id = 0; id < books; id++) {
+            catalog.add(new BookDto(id, "Benchmark Book " + id, random.nextInt(1, 11)));
+        }
+        builtIndex = new RatingIndex();
+        builtIndex.replaceAll(catalog);
+    }
+
+    @Benchmark
+    public List<BookDto> comparatorSort() {
+        return catalog.stream()
+                .sorted(Comparator.comparing(BookDto::getRating).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookDto> indexRebuild() {
+        RatingIndex index = new RatingIndex();
+        index.replaceAll(catalog);
+        return index.topN(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<BookDto> indexTopAll() {
+        return builtIndex.topN(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<BookDto> indexTop10() {
+        return builtIndex.topN(10);
+    }
+}
@@ -2,11 +2,20 @@ package com.books.recommendedservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
 
 @SpringBootApplication
 public class RecommendedServiceApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(RecommendedServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(RecommendedServiceApplication.class);
+        if (Boolean.getBoolean("cds.training-run")) {
+            // AppCDS training run (mvn -Pstartup package): exit once the context is up, before
+            // the change feed starts, so the JVM writes its class archive without BookService
+            application.addListeners((ApplicationListener<ApplicationStartedEvent>) event ->
+                    System.exit(SpringApplication.exit(event.getApplicationContext())));
+        }
+        application.run(args);
     }
-}
\ No newline at end of file
+}
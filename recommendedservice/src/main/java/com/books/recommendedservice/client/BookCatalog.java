@@ -0,0 +1,35 @@
+package com.books.recommendedservice.client;
+
+import com.books.recommendedservice.dto.BookDto;
+
+import java.util.List;
+
+/**
+ * Full catalog as returned by BookService, with the catalog version it corresponds to.
+ * Epoch and version are null when BookService did not send them.
+ */
+public class BookCatalog {
+
+    private final List<BookDto> books;
+    private final String epoch;
+    private final Long version;
+
+    public BookCatalog(List<BookDto> books, String epoch, Long version) {
+        this.books = books;
+        this.epoch = epoch;
+        this.version = version;
+    }
+
+    // Getters
+    public List<BookDto> getBooks() {
+        return books;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -1,48 +1,503 @@
 package com.books.recommendedservice.client;
 
 import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.dto.ChangeFeedDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Client for communicating with BookService via REST API
+ * 
+ * Catalog calls are guarded by a circuit breaker and backed by the last
+ * successfully fetched catalog (stale-while-revalidate): once a snapshot exists,
+ * callers get it immediately and the refresh runs in the background, so a slow
+ * or failing BookService does not show up in request latency.
+ * 
+ * Catalog and top-rated calls also share a bulkhead, which caps how many request
+ * threads can be waiting on BookService at once. The change feed long-poll runs
+ * on its own thread and stays outside of it.
+ * 
+ * Every full catalog is also written to a local snapshot file (CatalogSnapshotStore).
+ * A new instance starts from that file, so after a restart requests are served from it
+ * (within max-stale) while the first refresh runs, even if BookService is down.
  */
 @Component
 public class BookServiceClient {
     
+    private static final Logger log = LoggerFactory.getLogger(BookServiceClient.class);
+    
+    static final String UNAVAILABLE_MESSAGE = "BookService is currently unavailable. Please try again later.";
+    
+    static final String CATALOG_EPOCH_HEADER = "X-Catalog-Epoch";
+    static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+    
+    /** Smile first; JSON is still accepted, e.g. from a bookservice without Smile support */
+    static final List<MediaType> SMILE_THEN_JSON = List.of(
+            MediaType.parseMediaType("application/x-jackson-smile"),
+            MediaType.parseMediaType("application/json;q=0.9"));
+    
     private final RestTemplate restTemplate;
     private final String bookServiceUrl;
+    private final Counter fullResponses;
+    private final Counter notModifiedResponses;
+    private final Counter issuedCalls;
+    private final Counter coalescedCalls;
+    private final Counter staleCalls;
+    private final FetchTimers catalogTimers;
+    private final FetchTimers topRatedTimers;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final CatalogSnapshotStore snapshotStore;
+    private final long coalesceWindowNanos;
+    private final boolean staleWhileRevalidate;
+    private final long maxStaleNanos;
+    private final long slowCallNanos;
+    private final List<MediaType> catalogAccept;
+    
+    /** Runs background refreshes; one at a time, extra requests are dropped */
+    private final ThreadPoolExecutor refreshExecutor;
+    
+    /** A background refresh is queued or running (set before inFlight, which only exists once it runs) */
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    
+    /** Last 200 response and its ETag, reused when BookService answers 304 */
+    private final AtomicReference<CachedCatalog> lastCatalog = new AtomicReference<>();
+    
+    /** The catalog fetch currently on the wire, shared by every concurrent caller */
+    private final AtomicReference<CompletableFuture<BookCatalog>> inFlight = new AtomicReference<>();
+    
+    /** Last successful fetch (last-known-good snapshot) */
+    private volatile RecentCatalog recentCatalog;
+    
+    /** Whether the most recent upstream attempt failed, i.e. the snapshot could not be confirmed */
+    private volatile boolean lastFetchFailed;
     
     public BookServiceClient(RestTemplate restTemplate, 
-                           @Value("${bookservice.url:http://localhost:8080}") String bookServiceUrl) {
+                           @Value("${bookservice.url:http://localhost:8080}") String bookServiceUrl,
+                           MeterRegistry meterRegistry,
+                           CircuitBreaker circuitBreaker,
+                           Bulkhead bulkhead,
+                           CatalogSnapshotStore snapshotStore,
+                           @Value("${bookservice.client.coalesce-window-ms:0}") long coalesceWindowMs,
+                           @Value("${bookservice.client.stale-while-revalidate:true}") boolean staleWhileRevalidate,
+                           @Value("${bookservice.client.max-stale-ms:600000}") long maxStaleMs,
+                           @Value("${bookservice.client.slow-call-ms:2000}") long slowCallMs,
+                           @Value("${bookservice.client.smile:true}") boolean smile) {
         this.restTemplate = restTemplate;
         this.bookServiceUrl = bookServiceUrl;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.snapshotStore = snapshotStore;
+        this.fullResponses = responseCounter(meterRegistry, "200");
+        this.notModifiedResponses = responseCounter(meterRegistry, "304");
+        this.issuedCalls = callCounter(meterRegistry, "issued");
+        this.coalescedCalls = callCounter(meterRegistry, "coalesced");
+        this.staleCalls = callCounter(meterRegistry, "stale");
+        this.catalogTimers = new FetchTimers(meterRegistry, "catalog");
+        this.topRatedTimers = new FetchTimers(meterRegistry, "top-rated");
+        this.coalesceWindowNanos = TimeUnit.MILLISECONDS.toNanos(coalesceWindowMs);
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(maxStaleMs);
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.catalogAccept = smile ? SMILE_THEN_JSON : List.of(MediaType.APPLICATION_JSON);
+        this.refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bookservice-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        Gauge.builder("bookservice.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("BookService circuit breaker state (0 = closed, 1 = open, 2 = half-open)")
+                .register(meterRegistry);
+        Gauge.builder("bookservice.client.bulkhead.active", bulkhead, Bulkhead::getActiveCalls)
+                .description("Calls to BookService currently holding a bulkhead slot")
+                .register(meterRegistry);
+        snapshotStore.load().ifPresent(this::restore);
+    }
+    
+    /**
+     * Starts from a catalog saved by a previous run, aged by the time since it was saved
+     */
+    private void restore(CatalogSnapshotStore.StoredCatalog stored) {
+        long ageMillis = Math.max(0, System.currentTimeMillis() - stored.getSavedAtMillis());
+        BookCatalog catalog = stored.getCatalog();
+        recentCatalog = new RecentCatalog(catalog, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ageMillis));
+        if (stored.getEtag() != null) {
+            lastCatalog.set(new CachedCatalog(stored.getEtag(), catalog));
+        }
+        log.info("Restored {} books at catalog version {} from a snapshot saved {} s ago",
+                catalog.getBooks().size(), catalog.getVersion(), ageMillis / 1000);
+    }
+    
+    @PreDestroy
+    public void close() {
+        refreshExecutor.shutdownNow();
     }
     
     /**
      * Fetches all books from BookService for recommendations
      */
     public List<BookDto> getAllBooks() {
+        return getCatalog().getBooks();
+    }
+    
+    /**
+     * Fetches all books together with the catalog version they correspond to.
+     */
+    public BookCatalog getCatalog() {
+        return getCatalogSnapshot().getCatalog();
+    }
+    
+    /**
+     * ETag BookService served the catalog at {@code epoch} and {@code version} with,
+     * null when the last catalog fetched or restored is a different one
+     */
+    public String getCatalogETag(String epoch, long version) {
+        CachedCatalog cached = lastCatalog.get();
+        if (cached == null || cached.catalog.getVersion() == null) {
+            return null;
+        }
+        boolean same = cached.catalog.getVersion() == version && Objects.equals(cached.catalog.getEpoch(), epoch);
+        return same ? cached.etag : null;
+    }
+    
+    /**
+     * Returns the catalog and how old it is.
+     * 
+     * - Within the coalesce window after a successful fetch the snapshot is reused as is.
+     * - After that, with stale-while-revalidate, the snapshot (up to max-stale old) is
+     *   returned immediately and a background refresh is started.
+     * - Otherwise the caller waits for the fetch. If that fails, a snapshot within
+     *   max-stale is still served; without one, BookServiceUnavailableException is thrown.
+     */
+    public CatalogSnapshot getCatalogSnapshot() {
+        RecentCatalog recent = recentCatalog;
+        if (recent != null) {
+            long age = System.nanoTime() - recent.fetchedAt;
+            if (age < coalesceWindowNanos) {
+                coalescedCalls.increment();
+                return recent.snapshot(age, false);
+            }
+            if (staleWhileRevalidate && age <= maxStaleNanos) {
+                staleCalls.increment();
+                refreshInBackground();
+                return recent.snapshot(age, lastFetchFailed);
+            }
+        }
+        
+        try {
+            return new CatalogSnapshot(fetchShared(), 0, false);
+        } catch (BookServiceUnavailableException e) {
+            recent = recentCatalog;
+            if (recent != null && System.nanoTime() - recent.fetchedAt <= maxStaleNanos) {
+                staleCalls.increment();
+                return recent.snapshot(System.nanoTime() - recent.fetchedAt, true);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Single flight: at most one request is on the wire at a time. Callers that
+     * arrive while it is running wait for it and share its result or its failure.
+     */
+    private BookCatalog fetchShared() {
+        while (true) {
+            CompletableFuture<BookCatalog> running = inFlight.get();
+            if (running != null) {
+                coalescedCalls.increment();
+                return await(running);
+            }
+            
+            CompletableFuture<BookCatalog> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                try {
+                    BookCatalog catalog = fetchGuarded();
+                    mine.complete(catalog);
+                    return catalog;
+                } catch (RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.compareAndSet(mine, null);
+                }
+            }
+            // Another caller started a fetch in between, join that one
+        }
+    }
+    
+    /**
+     * Catalog fetch through the circuit breaker; a success becomes the last-known-good snapshot
+     */
+    private BookCatalog fetchGuarded() {
+        BookCatalog catalog;
+        try {
+            catalog = guarded(catalogTimers, this::fetchCatalog);
+        } catch (BookServiceUnavailableException e) {
+            lastFetchFailed = true;
+            throw e;
+        }
+        recentCatalog = new RecentCatalog(catalog, System.nanoTime());
+        lastFetchFailed = false;
+        return catalog;
+    }
+    
+    /**
+     * One upstream call through the bulkhead and the circuit breaker. Calls slower
+     * than slow-call-ms still return their result but count as failures for the breaker.
+     * A full bulkhead is local saturation, not a BookService failure, so it does not
+     * count for the breaker.
+     */
+    private <T> T guarded(FetchTimers timers, Supplier<T> call) {
+        if (!bulkhead.tryAcquire()) {
+            timers.bulkheadFull.record(0, TimeUnit.NANOSECONDS);
+            throw new BookServiceUnavailableException(UNAVAILABLE_MESSAGE, null, bulkhead.getRetryAfterMillis());
+        }
         try {
-            ResponseEntity<List<BookDto>> response = restTemplate.exchange(
-                bookServiceUrl,
+            return guardedByBreaker(timers, call);
+        } finally {
+            bulkhead.release();
+        }
+    }
+    
+    private <T> T guardedByBreaker(FetchTimers timers, Supplier<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            timers.rejected.record(0, TimeUnit.NANOSECONDS);
+            throw new BookServiceUnavailableException(UNAVAILABLE_MESSAGE, null, circuitBreaker.getRetryAfterMillis());
+        }
+        issuedCalls.increment();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (Exception e) {
+            timers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            circuitBreaker.onFailure();
+            throw new BookServiceUnavailableException(UNAVAILABLE_MESSAGE, e, circuitBreaker.getRetryAfterMillis());
+        }
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > slowCallNanos) {
+            timers.slow.record(elapsed, TimeUnit.NANOSECONDS);
+            circuitBreaker.onFailure();
+        } else {
+            timers.success.record(elapsed, TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+        }
+        return result;
+    }
+    
+    private void refreshInBackground() {
+        if (inFlight.get() != null || !refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                fetchShared();
+            } catch (RuntimeException e) {
+                log.debug("Background catalog refresh failed: {}", e.getMessage());
+            } finally {
+                refreshPending.set(false);
+            }
+        });
+    }
+    
+    /**
+     * Conditional request: when the catalog has not changed since the last call
+     * BookService answers 304 and the previously parsed catalog (same instance)
+     * is returned without any transfer or deserialization.
+     * 
+     * The catalog is requested as Smile (binary JSON, smaller and cheaper to parse)
+     * with JSON as fallback, unless bookservice.client.smile is false.
+     */
+    private BookCatalog fetchCatalog() {
+        CachedCatalog cached = lastCatalog.get();
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setAccept(catalogAccept);
+        if (cached != null) {
+            requestHeaders.setIfNoneMatch(cached.etag);
+        }
+        
+        ResponseEntity<List<BookDto>> response = restTemplate.exchange(
+            bookServiceUrl,
+            HttpMethod.GET,
+            new HttpEntity<>(requestHeaders),
+            new ParameterizedTypeReference<List<BookDto>>() {}
+        );
+        
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            notModifiedResponses.increment();
+            return cached.catalog;
+        }
+        fullResponses.increment();
+        
+        List<BookDto> books = response.getBody();
+        HttpHeaders headers = response.getHeaders();
+        String version = headers.getFirst(CATALOG_VERSION_HEADER);
+        BookCatalog catalog = new BookCatalog(
+            books != null ? books : Collections.emptyList(),
+            headers.getFirst(CATALOG_EPOCH_HEADER),
+            version != null ? Long.valueOf(version) : null
+        );
+        String etag = headers.getETag();
+        lastCatalog.set(etag != null ? new CachedCatalog(etag, catalog) : null);
+        snapshotStore.saveInBackground(catalog, etag);
+        return catalog;
+    }
+    
+    /**
+     * The {@code limit} highest-rated books, sorted and limited by BookService
+     * (GET ?sort=rating,desc&limit=N on its rating index), so only those books are
+     * transferred. Guarded by the circuit breaker like catalog fetches, but not
+     * coalesced or kept as a snapshot: BookService caches the answer per catalog version.
+     */
+    public List<BookDto> getTopRated(int limit) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(bookServiceUrl)
+                .queryParam("sort", "rating,desc")
+                .queryParam("limit", limit)
+                .build()
+                .toUri();
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setAccept(catalogAccept);
+        return guarded(topRatedTimers, () -> {
+            List<BookDto> books = restTemplate.exchange(
+                uri,
                 HttpMethod.GET,
-                null,
+                new HttpEntity<>(requestHeaders),
                 new ParameterizedTypeReference<List<BookDto>>() {}
-            );
-            
-            List<BookDto> books = response.getBody();
-            return books != null ? books : Collections.emptyList();
-            
+            ).getBody();
+            return books != null ? books : Collections.<BookDto>emptyList();
+        });
+    }
+    
+    /**
+     * Long-polls the BookService change feed for writes after {@code since}.
+     * Returns after at most {@code waitMs} with an empty change list if nothing changed.
+     */
+    public ChangeFeedDto getChanges(String epoch, long since, long waitMs) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(bookServiceUrl)
+                .path("/changes")
+                .queryParam("since", since)
+                .queryParam("epoch", epoch)
+                .queryParam("waitMs", waitMs)
+                .build()
+                .toUri();
+        try {
+            ChangeFeedDto feed = restTemplate.getForObject(uri, ChangeFeedDto.class);
+            if (feed == null) {
+                throw new IllegalStateException("Empty change feed response");
+            }
+            return feed;
         } catch (Exception e) {
-            throw new RuntimeException("BookService is currently unavailable. Please try again later.", e);
+            throw new RuntimeException("BookService change feed is currently unavailable.", e);
+        }
+    }
+
+    private static BookCatalog await(CompletableFuture<BookCatalog> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Rethrow the leader's exception as is, so every caller sees the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter callCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bookservice.client.catalog.calls")
+                .description("Catalog lookups by outcome (issued = sent to BookService, coalesced = shared another call's result, stale = served from the last snapshot)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter responseCounter(MeterRegistry meterRegistry, String status) {
+        return Counter.builder("bookservice.client.responses")
+                .description("Catalog responses from BookService by HTTP status (304 = served from local copy)")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * bookservice.client.fetch timers of one kind of call, by outcome
+     */
+    private static final class FetchTimers {
+        private final Timer success;
+        private final Timer slow;
+        private final Timer error;
+        private final Timer rejected;
+        private final Timer bulkheadFull;
+        
+        private FetchTimers(MeterRegistry meterRegistry, String call) {
+            this.success = fetchTimer(meterRegistry, call, "success");
+            this.slow = fetchTimer(meterRegistry, call, "slow");
+            this.error = fetchTimer(meterRegistry, call, "error");
+            this.rejected = fetchTimer(meterRegistry, call, "rejected");
+            this.bulkheadFull = fetchTimer(meterRegistry, call, "bulkhead-full");
+        }
+        
+        private static Timer fetchTimer(MeterRegistry meterRegistry, String call, String outcome) {
+            return Timer.builder("bookservice.client.fetch")
+                    .description("Calls to BookService by outcome (slow = answered after slow-call-ms, rejected = circuit open, bulkhead-full = too many concurrent calls)")
+                    .tag("call", call)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+    
+    private static final class RecentCatalog {
+        private final BookCatalog catalog;
+        private final long fetchedAt;
+        
+        private RecentCatalog(BookCatalog catalog, long fetchedAt) {
+            this.catalog = catalog;
+            this.fetchedAt = fetchedAt;
+        }
+        
+        private CatalogSnapshot snapshot(long ageNanos, boolean stale) {
+            return new CatalogSnapshot(catalog, TimeUnit.NANOSECONDS.toMillis(ageNanos), stale);
+        }
+    }
+    
+    private static final class CachedCatalog {
+        private final String etag;
+        private final BookCatalog catalog;
+        
+        private CachedCatalog(String etag, BookCatalog catalog) {
+            this.etag = etag;
+            this.catalog = catalog;
         }
     }
-}
\ No newline at end of file
+}
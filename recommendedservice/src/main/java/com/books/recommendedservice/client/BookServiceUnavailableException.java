@@ -0,0 +1,19 @@
+package com.books.recommendedservice.client;
+
+/**
+ * BookService could not be reached (or the circuit breaker is open) and no
+ * usable snapshot of the catalog was available. Mapped to 503 with Retry-After.
+ */
+public class BookServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public BookServiceUnavailableException(String message, Throwable cause, long retryAfterMillis) {
+        super(message, cause);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
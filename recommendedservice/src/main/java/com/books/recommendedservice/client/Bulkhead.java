@@ -0,0 +1,58 @@
+package com.books.recommendedservice.client;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent calls to BookService.
+ *
+ * A caller that finds every slot taken waits at most {@code maxWait} for one,
+ * then gives up, so a slow BookService holds at most {@code maxConcurrent}
+ * request threads instead of all of them.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    public Bulkhead(int maxConcurrent, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * @return true if the caller may go ahead; it must then call {@link #release()}
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        try {
+            return maxWaitNanos > 0 && permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Suggested client back-off after a rejection
+     */
+    public long getRetryAfterMillis() {
+        return Math.max(1000, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+}
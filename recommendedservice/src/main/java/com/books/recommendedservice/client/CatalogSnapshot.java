@@ -0,0 +1,31 @@
+package com.books.recommendedservice.client;
+
+/**
+ * A catalog together with how old it is.
+ * Stale means the last attempt to refresh it from BookService failed.
+ */
+public class CatalogSnapshot {
+
+    private final BookCatalog catalog;
+    private final long ageMillis;
+    private final boolean stale;
+
+    public CatalogSnapshot(BookCatalog catalog, long ageMillis, boolean stale) {
+        this.catalog = catalog;
+        this.ageMillis = ageMillis;
+        this.stale = stale;
+    }
+
+    // Getters
+    public BookCatalog getCatalog() {
+        return catalog;
+    }
+
+    public long getAgeMillis() {
+        return ageMillis;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
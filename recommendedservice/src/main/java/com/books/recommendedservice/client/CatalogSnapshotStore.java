@@ -0,0 +1,336 @@
+package com.books.recommendedservice.client;
+
+import com.books.recommendedservice.dto.BookDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Last known catalog on local disk, so a restarted instance can serve right away
+ * instead of waiting for (or failing with) BookService.
+ *
+ * Binary layout, big-endian:
+ * <pre>
+ * int magic "BCAT", int format version (1)
+ * string epoch, byte has-version, long version, string etag
+ * int book count, then per book: byte field flags (1 = id, 2 = rating, 4 = title), int id, int rating, string title
+ * int CRC32 of every byte before it
+ * </pre>
+ * Strings are an int byte length (-1 for null) followed by UTF-8; absent fields are not written.
+ *
+ * A new file is written next to the old one, synced and renamed over it (and the
+ * directory synced, so the rename survives a crash), so readers only ever see a
+ * complete snapshot. The file's modification time is the time the
+ * snapshot was last known to match BookService. Snapshots with a bad checksum,
+ * magic or format version are skipped.
+ */
+@Component
+public class CatalogSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    static final int MAGIC = 0x42434154;
+    static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int TRAILER_BYTES = 4;
+    private static final int HAS_ID = 1;
+    private static final int HAS_RATING = 2;
+    private static final int HAS_TITLE = 4;
+
+    private final boolean enabled;
+    private final Path path;
+    private final Timer writeTimer;
+    private final Counter writeFailures;
+    private final Counter loaded;
+    private final Counter missing;
+    private final Counter corrupt;
+
+    /** Writes in the background; only the latest pending catalog is kept */
+    private final ThreadPoolExecutor writeExecutor;
+
+    /** Catalog most recently written, to skip unchanged ones (304); failed or discarded writes are retried */
+    private volatile BookCatalog lastSaved;
+
+    public CatalogSnapshotStore(@Value("${bookservice.snapshot.enabled:true}") boolean enabled,
+                                @Value("${bookservice.snapshot.path:data/catalog.snapshot}") String path,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.path = Paths.get(path).toAbsolutePath();
+        this.writeTimer = Timer.builder("recommended.catalog.snapshot.write")
+                .description("Time to write the catalog snapshot to disk")
+                .register(meterRegistry);
+        this.writeFailures = Counter.builder("recommended.catalog.snapshot.write.failures")
+                .description("Catalog snapshot writes that failed in the background")
+                .register(meterRegistry);
+        this.loaded = loadCounter(meterRegistry, "loaded");
+        this.missing = loadCounter(meterRegistry, "missing");
+        this.corrupt = loadCounter(meterRegistry, "corrupt");
+        this.writeExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-snapshot-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        writeExecutor.shutdown();
+        writeExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * The stored snapshot, empty when disabled, missing or unreadable
+     */
+    public Optional<StoredCatalog> load() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (!Files.isRegularFile(path)) {
+            missing.increment();
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("unexpected size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size - TRAILER_BYTES;
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("not a catalog snapshot");
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("unsupported format version " + buffer.getInt(4));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, end));
+            if ((int) crc.getValue() != buffer.getInt(end)) {
+                throw new IOException("checksum mismatch");
+            }
+            StoredCatalog stored = decode(buffer.slice(HEADER_BYTES, end - HEADER_BYTES),
+                    Files.getLastModifiedTime(path).toMillis());
+            loaded.increment();
+            return Optional.of(stored);
+        } catch (IOException | RuntimeException e) {
+            corrupt.increment();
+            log.warn("Ignoring catalog snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Queues the catalog for writing; a catalog already saved (same instance) is skipped
+     */
+    public void saveInBackground(BookCatalog catalog, String etag) {
+        if (!enabled || catalog == lastSaved) {
+            return;
+        }
+        writeExecutor.execute(() -> {
+            if (catalog == lastSaved) {
+                return;
+            }
+            try {
+                save(catalog, etag);
+                lastSaved = catalog;
+            } catch (IOException e) {
+                writeFailures.increment();
+                log.warn("Catalog snapshot not written to {}: {}", path, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the catalog and atomically replaces the previous snapshot
+     */
+    public void save(BookCatalog catalog, String etag) throws IOException {
+        long start = System.nanoTime();
+        Path directory = path.getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+                encode(out, catalog, etag);
+                out.flush();
+                out.writeInt((int) checked.getChecksum().getValue());
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(directory);
+        writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records that the stored snapshot still matches BookService, without rewriting it
+     */
+    public void markCurrent() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Catalog snapshot {} not touched: {}", path, e.getMessage());
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened or synced on every platform (Windows)
+            log.debug("Catalog snapshot directory {} not synced: {}", directory, e.getMessage());
+        }
+    }
+
+    private static void encode(DataOutputStream out, BookCatalog catalog, String etag) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, catalog.getEpoch());
+        out.writeBoolean(catalog.getVersion() != null);
+        out.writeLong(catalog.getVersion() != null ? catalog.getVersion() : 0);
+        writeString(out, etag);
+        List<BookDto> books = catalog.getBooks();
+        out.writeInt(books.size());
+        for (BookDto book : books) {
+            int flags = (book.getId() != null ? HAS_ID : 0)
+                    | (book.getRating() != null ? HAS_RATING : 0)
+                    | (book.getTitle() != null ? HAS_TITLE : 0);
+            out.writeByte(flags);
+            if (book.getId() != null) {
+                out.writeInt(book.getId());
+            }
+            if (book.getRating() != null) {
+                out.writeInt(book.getRating());
+            }
+            if (book.getTitle() != null) {
+                writeString(out, book.getTitle());
+            }
+        }
+    }
+
+    private static StoredCatalog decode(ByteBuffer buffer, long savedAtMillis) throws IOException {
+        String epoch = readString(buffer);
+        boolean hasVersion = buffer.get() != 0;
+        long version = buffer.getLong();
+        String etag = readString(buffer);
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IOException("bad book count " + count);
+        }
+        List<BookDto> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = buffer.get();
+            BookDto book = new BookDto();
+            if ((flags & HAS_ID) != 0) {
+                book.setId(buffer.getInt());
+            }
+            if ((flags & HAS_RATING) != 0) {
+                book.setRating(buffer.getInt());
+            }
+            if ((flags & HAS_TITLE) != 0) {
+                book.setTitle(readString(buffer));
+            }
+            books.add(book);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException(buffer.remaining() + " trailing bytes");
+        }
+        return new StoredCatalog(new BookCatalog(books, epoch, hasVersion ? version : null), etag, savedAtMillis);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Counter loadCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("recommended.catalog.snapshot.loads")
+                .description("Catalog snapshot reads at startup by outcome (corrupt = bad checksum or format, skipped)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A catalog read back from disk, with the ETag it was served with and when it
+     * was last known to be current
+     */
+    public static final class StoredCatalog {
+        private final BookCatalog catalog;
+        private final String etag;
+        private final long savedAtMillis;
+
+        private StoredCatalog(BookCatalog catalog, String etag, long savedAtMillis) {
+            this.catalog = catalog;
+            this.etag = etag;
+            this.savedAtMillis = savedAtMillis;
+        }
+
+        public BookCatalog getCatalog() {
+            return catalog;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getSavedAtMillis() {
+            return savedAtMillis;
+        }
+    }
+}
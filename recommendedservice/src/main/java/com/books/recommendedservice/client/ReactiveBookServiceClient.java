@@ -0,0 +1,72 @@
+package com.books.recommendedservice.client;
+
+import com.books.recommendedservice.dto.BookDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+
+/**
+ * Non-blocking counterpart of BookServiceClient, used by /api/v2/recommended.
+ * 
+ * Shares the circuit breaker with BookServiceClient, so both APIs see the same
+ * view of BookService health. Failures surface as BookServiceUnavailableException.
+ */
+@Component
+public class ReactiveBookServiceClient {
+
+    private final WebClient webClient;
+    private final String bookServiceUrl;
+    private final CircuitBreaker circuitBreaker;
+
+    public ReactiveBookServiceClient(WebClient bookServiceWebClient,
+                                     @Value("${bookservice.url:http://localhost:8080}") String bookServiceUrl,
+                                     CircuitBreaker circuitBreaker) {
+        this.webClient = bookServiceWebClient;
+        this.bookServiceUrl = bookServiceUrl;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * All books, decoded one by one as the JSON array arrives
+     */
+    public Flux<BookDto> getAllBooks() {
+        return books(URI.create(bookServiceUrl));
+    }
+
+    /**
+     * The {@code limit} highest-rated books, sorted and limited by BookService
+     */
+    public Flux<BookDto> getTopRated(int limit) {
+        return books(UriComponentsBuilder.fromHttpUrl(bookServiceUrl)
+                .queryParam("sort", "rating,desc")
+                .queryParam("limit", limit)
+                .build()
+                .toUri());
+    }
+
+    private Flux<BookDto> books(URI uri) {
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Flux.error(new BookServiceUnavailableException(
+                        BookServiceClient.UNAVAILABLE_MESSAGE, null, circuitBreaker.getRetryAfterMillis()));
+            }
+            return webClient.get()
+                    .uri(uri)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToFlux(BookDto.class)
+                    .doOnComplete(circuitBreaker::onSuccess)
+                    .doOnCancel(circuitBreaker::release)
+                    .onErrorMap(e -> {
+                        circuitBreaker.onFailure();
+                        return new BookServiceUnavailableException(
+                                BookServiceClient.UNAVAILABLE_MESSAGE, e, circuitBreaker.getRetryAfterMillis());
+                    });
+        });
+    }
+}
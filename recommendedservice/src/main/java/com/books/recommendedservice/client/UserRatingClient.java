@@ -0,0 +1,67 @@
+package com.books.recommendedservice.client;
+
+import com.books.recommendedservice.dto.UserRatingDto;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads every user rating from BookService (GET /api/books/ratings, NDJSON).
+ * 
+ * Ratings are handed to the consumer one at a time as they are parsed off the
+ * response, so the batch job never holds the export as a list of objects.
+ */
+@Component
+public class UserRatingClient {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final RestTemplate restTemplate;
+    private final String bookServiceUrl;
+    private final ObjectReader ratingReader;
+
+    public UserRatingClient(RestTemplate restTemplate,
+                            @Value("${bookservice.url:http://localhost:8080}") String bookServiceUrl,
+                            ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
+        this.bookServiceUrl = bookServiceUrl;
+        this.ratingReader = objectMapper.readerFor(UserRatingDto.class);
+    }
+
+    /**
+     * Calls {@code consumer} for every rating and returns how many were read
+     */
+    public long forEachRating(Consumer<UserRatingDto> consumer) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(bookServiceUrl)
+                .path("/ratings")
+                .build()
+                .toUri();
+        try {
+            Long count = restTemplate.execute(uri, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(APPLICATION_NDJSON)),
+                    response -> {
+                        long read = 0;
+                        try (MappingIterator<UserRatingDto> ratings = ratingReader.readValues(response.getBody())) {
+                            while (ratings.hasNextValue()) {
+                                consumer.accept(ratings.nextValue());
+                                read++;
+                            }
+                        }
+                        return read;
+                    });
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            throw new RuntimeException("BookService ratings are currently unavailable.", e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.books.recommendedservice.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows observed latency (gradient algorithm).
+ *
+ * Response times are averaged per sample window (at least {@code window} long
+ * and 10 requests) and compared with a baseline, a moving average over the last
+ * ~600 windows. While a window stays within {@code tolerance} x the baseline the
+ * limit grows by about sqrt(limit); once requests slow down it shrinks in
+ * proportion, at most halving per window. A window with server errors shrinks it
+ * by 10%. The limit only grows while at least half of it is in use, so an idle
+ * service does not drift to the maximum.
+ *
+ * Requests over the limit wait in a bounded queue for at most {@code maxWait},
+ * the rest are rejected right away.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Admission { ACCEPTED, QUEUED, REJECTED }
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double LONG_WEIGHT = 2.0 / (600 + 1);
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitFreed = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double longRtt;
+
+    private long windowStart;
+    private int windowSamples;
+    private double windowRttSum;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueue, Duration maxWait, double tolerance, Duration window) {
+        this(initialLimit, minLimit, maxLimit, maxQueue, maxWait, tolerance, window, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueue, Duration maxWait, double tolerance, Duration window,
+                                      LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("tolerance must be at least 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.tolerance = tolerance;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * ACCEPTED or QUEUED: the caller holds a slot and must call {@link #release};
+     * REJECTED: the limit and the queue were full, or the wait timed out
+     */
+    public Admission acquire() {
+        lock.lock();
+        try {
+            // Waiters go first, a newcomer only takes a slot when nobody is queued
+            if (waiting == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return Admission.ACCEPTED;
+            }
+            if (waiting >= maxQueue || maxWaitNanos <= 0) {
+                return Admission.REJECTED;
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return Admission.REJECTED;
+                    }
+                    remaining = permitFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Admission.REJECTED;
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            return Admission.QUEUED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's own processing time (queue wait
+     * excluded) into the limit
+     */
+    public void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+            inFlight--;
+            if (dropped) {
+                windowDropped = true;
+            } else {
+                windowRttSum += Math.max(1, rttNanos);
+                windowSamples++;
+            }
+            long now = nanoClock.getAsLong();
+            if (now - windowStart >= windowNanos && (windowSamples >= MIN_WINDOW_SAMPLES || windowDropped)) {
+                endWindow();
+                windowStart = now;
+                windowSamples = 0;
+                windowRttSum = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+            if (waiting > 0) {
+                permitFreed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void endWindow() {
+        if (windowDropped) {
+            limit = Math.max(minLimit, limit * DROP_FACTOR);
+            return;
+        }
+        double shortRtt = windowRttSum / windowSamples;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        longRtt += (shortRtt - longRtt) * LONG_WEIGHT;
+        // After a long overload the baseline has crept up; let it come back down with latency
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        if (target > limit && windowMaxInFlight < limit / 2) {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Baseline latency the limit is steered against, 0 before the first sample
+     */
+    public long getBaselineRttMillis() {
+        lock.lock();
+        try {
+            return TimeUnit.NANOSECONDS.toMillis((long) longRtt);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.books.recommendedservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit on GET /api/recommended (recommendations.admission.*)
+ */
+@Configuration
+@ConditionalOnProperty(name = "recommendations.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter recommendedLimiter(
+            @Value("${recommendations.admission.initial-limit:20}") int initialLimit,
+            @Value("${recommendations.admission.min-limit:4}") int minLimit,
+            @Value("${recommendations.admission.max-limit:100}") int maxLimit,
+            @Value("${recommendations.admission.queue-size:20}") int queueSize,
+            @Value("${recommendations.admission.max-wait-ms:100}") long maxWaitMs,
+            @Value("${recommendations.admission.latency-tolerance:1.5}") double latencyTolerance,
+            @Value("${recommendations.admission.sample-window-ms:100}") long sampleWindowMs) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                queueSize, Duration.ofMillis(maxWaitMs), latencyTolerance, Duration.ofMillis(sampleWindowMs));
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdaptiveConcurrencyLimiter recommendedLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${recommendations.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(recommendedLimiter, retryAfterSeconds, meterRegistry));
+        registration.addUrlPatterns("/api/recommended");
+        return registration;
+    }
+}
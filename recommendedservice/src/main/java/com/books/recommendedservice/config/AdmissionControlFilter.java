@@ -0,0 +1,99 @@
+package com.books.recommendedservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load shedding in front of the recommendation endpoint: requests over the
+ * {@link AdaptiveConcurrencyLimiter} limit get a 503 with Retry-After before
+ * they reach the controller, so they neither tie up a thread waiting on
+ * BookService nor slow down the requests that were accepted.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_BODY =
+            "{\"httpCode\":503,\"message\":\"Too many concurrent requests. Please try again later.\"}";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long retryAfterSeconds;
+    private final Counter accepted;
+    private final Counter queued;
+    private final Counter rejected;
+    private final Timer queueWait;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.accepted = admissionCounter(meterRegistry, "accepted");
+        this.queued = admissionCounter(meterRegistry, "queued");
+        this.rejected = admissionCounter(meterRegistry, "rejected");
+        this.queueWait = Timer.builder("recommended.admission.wait")
+                .description("Time queued requests waited for a slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("recommended.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("recommended.admission.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Admitted requests being processed")
+                .register(meterRegistry);
+        Gauge.builder("recommended.admission.waiting", limiter, AdaptiveConcurrencyLimiter::getWaiting)
+                .description("Requests waiting for a slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long arrived = System.nanoTime();
+        AdaptiveConcurrencyLimiter.Admission admission = limiter.acquire();
+        long start = System.nanoTime();
+        switch (admission) {
+            case ACCEPTED:
+                accepted.increment();
+                break;
+            case QUEUED:
+                queued.increment();
+                queueWait.record(start - arrived, TimeUnit.NANOSECONDS);
+                break;
+            default:
+                rejected.increment();
+                reject(response);
+                return;
+        }
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(REJECTED_BODY);
+    }
+
+    private static Counter admissionCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("recommended.admission.requests")
+                .description("Requests to /api/recommended by admission outcome (queued = admitted after waiting for a slot)")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,106 @@
+package com.books.recommendedservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * HTTP client settings for calls to bookservice (bookservice.http.*)
+ */
+@ConfigurationProperties(prefix = "bookservice.http")
+public class BookServiceHttpProperties {
+
+    public enum Engine {
+        /** Apache HttpClient 5 with a keep-alive connection pool */
+        POOLED,
+        /** JDK HttpURLConnection (SimpleClientHttpRequestFactory), no pool management */
+        SIMPLE
+    }
+
+    private Engine engine = Engine.POOLED;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    /** Max time to wait for a free pooled connection */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    private int maxConnections = 100;
+    private int maxConnectionsPerRoute = 50;
+    /** Idle pooled connections are closed after this long */
+    private Duration idleEvictAfter = Duration.ofSeconds(30);
+    /** Pooled connections are never reused after this age, so DNS/load balancer changes are picked up */
+    private Duration connectionTtl = Duration.ofMinutes(5);
+    /** Send Accept-Encoding: gzip and decompress responses transparently */
+    private boolean compression = true;
+
+    // Getters and Setters
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public Duration getIdleEvictAfter() {
+        return idleEvictAfter;
+    }
+
+    public void setIdleEvictAfter(Duration idleEvictAfter) {
+        this.idleEvictAfter = idleEvictAfter;
+    }
+
+    public Duration getConnectionTtl() {
+        return connectionTtl;
+    }
+
+    public void setConnectionTtl(Duration connectionTtl) {
+        this.connectionTtl = connectionTtl;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+}
@@ -0,0 +1,30 @@
+package com.books.recommendedservice.config;
+
+import com.books.recommendedservice.client.Bulkhead;
+import com.books.recommendedservice.client.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead guarding catalog calls to bookservice
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+    @Bean
+    public CircuitBreaker bookServiceCircuitBreaker(
+            @Value("${bookservice.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${bookservice.circuit-breaker.open-ms:10000}") long openMs) {
+        return new CircuitBreaker(failureThreshold, Duration.ofMillis(openMs));
+    }
+
+    @Bean
+    public Bulkhead bookServiceBulkhead(
+            @Value("${bookservice.bulkhead.max-concurrent:20}") int maxConcurrent,
+            @Value("${bookservice.bulkhead.max-wait-ms:50}") long maxWaitMs) {
+        return new Bulkhead(maxConcurrent, Duration.ofMillis(maxWaitMs));
+    }
+}
@@ -1,6 +1,9 @@
 package com.books.recommendedservice.config;
 
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -11,6 +14,32 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * Handles invalid request parameters (e.g. limit < 1)
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleIllegalArgumentException(IllegalArgumentException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("httpCode", 400);
+        errorResponse.put("message", e.getMessage());
+        return errorResponse;
+    }
+
+    /**
+     * BookService is down (or the circuit is open) and no snapshot could be served
+     */
+    @ExceptionHandler(BookServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleBookServiceUnavailable(BookServiceUnavailableException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("httpCode", 503);
+        errorResponse.put("message", e.getMessage());
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
     /**
      * Handles RuntimeException (including BookService communication errors)
      */
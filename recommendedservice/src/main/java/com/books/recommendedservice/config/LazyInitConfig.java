@@ -0,0 +1,27 @@
+package com.books.recommendedservice.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+/**
+ * Keeps the request path eager when the "lazy" profile turns on spring.main.lazy-initialization.
+ *
+ * Controllers and exception handlers are created at startup, and with them everything they
+ * depend on (services, the BookService HTTP client), so the first request does not pay
+ * for bean creation. Beans nothing on that path needs (metrics binders, actuator endpoints)
+ * stay lazy.
+ */
+@Configuration
+public class LazyInitConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter requestPathExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class));
+    }
+}
@@ -0,0 +1,44 @@
+package com.books.recommendedservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configuration for WebClient - non-blocking HTTP client used by the /api/v2 endpoints
+ * 
+ * Uses the same bookservice.http.* pool and timeout settings as RestTemplateConfig.
+ * Requests are multiplexed over a few Netty event-loop threads instead of
+ * holding one thread per call.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider bookServiceConnectionProvider(BookServiceHttpProperties http) {
+        return ConnectionProvider.builder("bookservice")
+                .maxConnections(http.getMaxConnectionsPerRoute())
+                .pendingAcquireTimeout(http.getConnectionRequestTimeout())
+                .maxIdleTime(http.getIdleEvictAfter())
+                .maxLifeTime(http.getConnectionTtl())
+                .evictInBackground(http.getIdleEvictAfter())
+                .build();
+    }
+
+    @Bean
+    public WebClient bookServiceWebClient(WebClient.Builder builder,
+                                          ConnectionProvider bookServiceConnectionProvider,
+                                          BookServiceHttpProperties http) {
+        HttpClient httpClient = HttpClient.create(bookServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getReadTimeout())
+                .compress(http.isCompression());
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
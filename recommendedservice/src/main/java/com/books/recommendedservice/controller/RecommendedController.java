@@ -1,10 +1,14 @@
 package com.books.recommendedservice.controller;
 
 import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.service.PersonalRecommender;
+import com.books.recommendedservice.service.Recommendations;
 import com.books.recommendedservice.service.RecommendedService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -16,21 +20,45 @@ import java.util.List;
 @RequestMapping("/api/recommended")
 public class RecommendedController {
     
+    static final String CATALOG_STALE_HEADER = "X-Catalog-Stale";
+    
     private final RecommendedService recommendationService;
+    private final PersonalRecommender personalRecommender;
     
-    public RecommendedController(RecommendedService recommendationService) {
+    public RecommendedController(RecommendedService recommendationService, PersonalRecommender personalRecommender) {
         this.recommendationService = recommendationService;
+        this.personalRecommender = personalRecommender;
     }
     
     /**
      * GET /api/recommended - Returns books sorted by rating (descending)
      * 
-     * This endpoint calls BookService, retrieves all books, sorts them by rating
+     * This endpoint calls BookService, retrieves all books, orders them by rating
      * in descending order, and returns the recommended list.
+     * Optional ?limit=N returns only the top N books.
+     * 
+     * ?user=X returns the user's precomputed recommendations (books similar to the
+     * ones they rated high, see PersonalRecommender); users without any get the
+     * list by rating.
+     * 
+     * Age: seconds since the catalog was fetched from BookService, or since its change
+     * feed last answered when served from the live replica (for ?user=X, since the
+     * recommendations were computed).
+     * X-Catalog-Stale: true when BookService could not be reached to refresh it.
      */
     @GetMapping
-    public ResponseEntity<List<BookDto>> getRecommendedBooks() {
-        List<BookDto> recommendedBooks = recommendationService.getRecommendedBooksByRatingDesc();
-        return ResponseEntity.ok(recommendedBooks);
+    public ResponseEntity<List<BookDto>> getRecommendedBooks(@RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String user) {
+        int max = limit == null ? Integer.MAX_VALUE : limit;
+        Recommendations recommendations = user == null
+                ? recommendationService.getRecommendations(max)
+                : personalRecommender.recommend(user, max)
+                        .orElseGet(() -> recommendationService.getRecommendations(max));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(recommendations.getAgeMillis() / 1000));
+        if (recommendations.isStale()) {
+            response.header(CATALOG_STALE_HEADER, "true");
+        }
+        return response.body(recommendations.getBooks());
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.books.recommendedservice.controller;
+
+import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.service.ReactiveRecommendedService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking /api/v2/recommended endpoint.
+ * 
+ * The request thread is released while BookService is called through WebClient;
+ * the response is written once the Mono completes.
+ * When BookService is unavailable the last known catalog is served, like /api/recommended,
+ * but without Age / X-Catalog-Stale headers.
+ * All exceptions bubble up to GlobalExceptionHandler
+ */
+@RestController
+@RequestMapping("/api/v2/recommended")
+public class RecommendedV2Controller {
+
+    private final ReactiveRecommendedService recommendationService;
+
+    public RecommendedV2Controller(ReactiveRecommendedService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    /**
+     * GET /api/v2/recommended - Returns books sorted by rating (descending)
+     * Optional ?limit=N returns only the top N books.
+     */
+    @GetMapping
+    public Mono<List<BookDto>> getRecommendedBooks(@RequestParam(required = false) Integer limit) {
+        return recommendationService.getRecommendedBooksByRatingDesc(limit == null ? Integer.MAX_VALUE : limit);
+    }
+}
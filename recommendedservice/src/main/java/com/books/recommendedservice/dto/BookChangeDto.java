@@ -0,0 +1,46 @@
+package com.books.recommendedservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One entry of the BookService change feed
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookChangeDto {
+    private long version;
+    private String type;
+    private BookDto book;
+
+    public BookChangeDto() {}
+
+    public BookChangeDto(long version, String type, BookDto book) {
+        this.version = version;
+        this.type = type;
+        this.book = book;
+    }
+
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BookDto getBook() {
+        return book;
+    }
+
+    public void setBook(BookDto book) {
+        this.book = book;
+    }
+}
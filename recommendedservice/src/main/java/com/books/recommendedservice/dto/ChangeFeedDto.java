@@ -0,0 +1,60 @@
+package com.books.recommendedservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response of BookService GET /api/books/changes.
+ * reset=true means the replica must be reloaded from the full catalog.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChangeFeedDto {
+    private String epoch;
+    private long version;
+    private boolean reset;
+    private List<BookChangeDto> changes = new ArrayList<>();
+
+    public ChangeFeedDto() {}
+
+    public ChangeFeedDto(String epoch, long version, boolean reset, List<BookChangeDto> changes) {
+        this.epoch = epoch;
+        this.version = version;
+        this.reset = reset;
+        this.changes = changes;
+    }
+
+    // Getters and Setters
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public List<BookChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<BookChangeDto> changes) {
+        this.changes = changes;
+    }
+}
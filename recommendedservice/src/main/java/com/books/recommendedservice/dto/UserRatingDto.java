@@ -0,0 +1,46 @@
+package com.books.recommendedservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One line of BookService GET /api/books/ratings: a user's rating of a book
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserRatingDto {
+    private String userId;
+    private Integer bookId;
+    private Integer rating;
+
+    public UserRatingDto() {}
+
+    public UserRatingDto(String userId, Integer bookId, Integer rating) {
+        this.userId = userId;
+        this.bookId = bookId;
+        this.rating = rating;
+    }
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Integer getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Integer bookId) {
+        this.bookId = bookId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+}
@@ -0,0 +1,209 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookCatalog;
+import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.CatalogSnapshotStore;
+import com.books.recommendedservice.dto.BookChangeDto;
+import com.books.recommendedservice.dto.ChangeFeedDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the RatingIndex in sync with BookService through its change feed.
+ * 
+ * Loads the full catalog once, then long-polls /api/books/changes and applies
+ * only the deltas, so serving /api/recommended no longer depends on the size
+ * of the upstream payload. A reset from BookService (restart, or too far
+ * behind) triggers a full reload.
+ *
+ * The loaded catalog may be a snapshot restored from disk, so the replica only
+ * counts as synced once BookService confirmed its version with a first poll.
+ * 
+ * If BookService becomes unreachable the replica keeps serving its last state,
+ * reported as stale and aged from the last successful poll, for up to
+ * bookservice.client.max-stale-ms; after that it no longer counts as synced.
+ * Polling resumes from the same version once BookService is back.
+ * 
+ * Every snapshot-interval-ms the replica is written to the local catalog snapshot
+ * when it changed, or the snapshot is marked current when it did not, so a
+ * restarted instance resumes the feed from a recent version.
+ */
+@Component
+public class BookChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeSubscriber.class);
+
+    private final BookServiceClient bookServiceClient;
+    private final RatingIndex ratingIndex;
+    private final CatalogSnapshotStore snapshotStore;
+    private final boolean enabled;
+    private final long waitMs;
+    private final long retryDelayMs;
+    private final long snapshotIntervalNanos;
+    private final long maxStaleNanos;
+
+    private volatile boolean synced;
+    /** When BookService last answered a poll, and whether a poll failed since */
+    private volatile long confirmedAt;
+    private volatile boolean feedFailing;
+    private volatile boolean running;
+    private Thread worker;
+
+    // Only touched by the worker thread
+    private BookCatalog loaded;
+    private BookCatalog resetCatalog;
+    private String epoch;
+    private long version;
+    private long snapshotVersion;
+    private long snapshotAt;
+
+    public BookChangeSubscriber(BookServiceClient bookServiceClient,
+                                RatingIndex ratingIndex,
+                                CatalogSnapshotStore snapshotStore,
+                                @Value("${bookservice.change-feed.enabled:true}") boolean enabled,
+                                @Value("${bookservice.change-feed.wait-ms:5000}") long waitMs,
+                                @Value("${bookservice.change-feed.retry-delay-ms:1000}") long retryDelayMs,
+                                @Value("${bookservice.change-feed.snapshot-interval-ms:60000}") long snapshotIntervalMs,
+                                @Value("${bookservice.client.max-stale-ms:600000}") long maxStaleMs) {
+        this.bookServiceClient = bookServiceClient;
+        this.ratingIndex = ratingIndex;
+        this.snapshotStore = snapshotStore;
+        this.enabled = enabled;
+        this.waitMs = waitMs;
+        this.retryDelayMs = retryDelayMs;
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMs);
+        this.maxStaleNanos = TimeUnit.MILLISECONDS.toNanos(maxStaleMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "book-change-feed");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * True once the RatingIndex holds a full catalog that BookService confirmed and
+     * that is being kept up to date, or was within max-stale
+     */
+    public boolean isSynced() {
+        return synced && (!feedFailing || System.nanoTime() - confirmedAt <= maxStaleNanos);
+    }
+
+    /**
+     * Milliseconds since BookService last confirmed the replica, 0 while the feed is
+     * healthy (a pending long-poll returns as soon as anything changes)
+     */
+    public long getAgeMillis() {
+        return feedFailing ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - confirmedAt) : 0;
+    }
+
+    /**
+     * True when the last poll failed, so the replica may miss writes since getAgeMillis()
+     */
+    public boolean isStale() {
+        return feedFailing;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                syncOnce();
+            } catch (RuntimeException e) {
+                log.warn("Book change feed failed, retrying in {} ms: {}", retryDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * One step of the subscription: a full load when not loaded, otherwise one poll
+     * (immediate until BookService confirmed the loaded version, then a long-poll)
+     */
+    void syncOnce() {
+        if (loaded == null) {
+            BookCatalog catalog = bookServiceClient.getCatalog();
+            if (catalog.getVersion() == null) {
+                log.warn("BookService does not publish a catalog version, change feed disabled");
+                running = false;
+                return;
+            }
+            if (catalog == resetCatalog) {
+                // Still the catalog BookService just rejected, e.g. the restored snapshot
+                throw new IllegalStateException("catalog at version " + catalog.getVersion() + " not refreshed yet");
+            }
+            ratingIndex.replaceAll(catalog.getBooks());
+            loaded = catalog;
+            epoch = catalog.getEpoch();
+            version = catalog.getVersion();
+            // The client already saved (or was restored from) this catalog
+            snapshotVersion = version;
+            snapshotAt = System.nanoTime();
+            log.info("Loaded {} books at catalog version {}", catalog.getBooks().size(), version);
+            return;
+        }
+
+        ChangeFeedDto feed;
+        try {
+            feed = bookServiceClient.getChanges(epoch, version, synced ? waitMs : 0);
+        } catch (RuntimeException e) {
+            feedFailing = true;
+            throw e;
+        }
+        confirmedAt = System.nanoTime();
+        feedFailing = false;
+        if (feed.isReset()) {
+            log.info("Change feed reset at version {}, reloading catalog", version);
+            synced = false;
+            resetCatalog = loaded;
+            loaded = null;
+            return;
+        }
+        for (BookChangeDto change : feed.getChanges()) {
+            ratingIndex.upsert(change.getBook());
+        }
+        version = feed.getVersion();
+        synced = true;
+        persistReplica();
+    }
+
+    private void persistReplica() {
+        long now = System.nanoTime();
+        if (now - snapshotAt < snapshotIntervalNanos) {
+            return;
+        }
+        snapshotAt = now;
+        if (version == snapshotVersion) {
+            snapshotStore.markCurrent();
+            return;
+        }
+        snapshotVersion = version;
+        // topN over everything lists the books bucket by bucket, the order replaceAll rebuilds
+        snapshotStore.saveInBackground(new BookCatalog(ratingIndex.topN(Integer.MAX_VALUE), epoch, version),
+                bookServiceClient.getCatalogETag(epoch, version));
+    }
+}
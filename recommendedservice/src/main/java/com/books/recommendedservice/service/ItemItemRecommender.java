@@ -0,0 +1,304 @@
+package com.books.recommendedservice.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-item collaborative filtering over a {@link RatingMatrix}, as a batch job.
+ *
+ * 1. Similarity: adjusted cosine between every two books rated by a common user
+ *    (ratings centered on each user's mean), keeping the {@code neighbors} most
+ *    similar books per book.
+ * 2. Scoring: for each user, every book they rated votes for its neighbors with
+ *    similarity x (rating - 5.5), so books like the ones they rated high move up
+ *    and books like the ones they rated low move down. The best {@code perUser}
+ *    books with a positive score, not rated by the user yet, are kept.
+ *
+ * Both passes split their range (books, then users) into ForkJoin tasks. Each
+ * leaf works on its own scratch arrays and writes a disjoint slice of the output,
+ * so there is no locking and no boxing anywhere in the loops.
+ */
+public class ItemItemRecommender {
+
+    /** Middle of the 1-10 rating scale: ratings above it recommend similar books */
+    static final float NEUTRAL_RATING = 5.5f;
+
+    private static final int[] NONE = new int[0];
+
+    private final ForkJoinPool pool;
+    private final int neighbors;
+    private final int perUser;
+
+    public ItemItemRecommender(ForkJoinPool pool, int neighbors, int perUser) {
+        if (neighbors < 1 || perUser < 1) {
+            throw new IllegalArgumentException("neighbors and perUser must be at least 1");
+        }
+        this.pool = pool;
+        this.neighbors = neighbors;
+        this.perUser = perUser;
+    }
+
+    /**
+     * Recommended book IDs per user (indexed like the matrix users), best first
+     */
+    public int[][] recommend(RatingMatrix matrix) {
+        int users = matrix.userCount();
+        int items = matrix.itemCount();
+
+        // Ratings centered on the user's mean, in user order and transposed to book order
+        float[] centered = new float[matrix.ratingCount()];
+        int[] columnOffsets = new int[items + 1];
+        for (int user = 0; user < users; user++) {
+            int start = matrix.rowStart(user);
+            int end = matrix.rowEnd(user);
+            float sum = 0;
+            for (int i = start; i < end; i++) {
+                sum += matrix.rating(i);
+                columnOffsets[matrix.item(i) + 1]++;
+            }
+            float mean = sum / (end - start);
+            for (int i = start; i < end; i++) {
+                centered[i] = matrix.rating(i) - mean;
+            }
+        }
+        for (int item = 0; item < items; item++) {
+            columnOffsets[item + 1] += columnOffsets[item];
+        }
+        int[] columnUsers = new int[centered.length];
+        float[] columnValues = new float[centered.length];
+        int[] fill = columnOffsets.clone();
+        float[] norms = new float[items];
+        for (int user = 0; user < users; user++) {
+            for (int i = matrix.rowStart(user); i < matrix.rowEnd(user); i++) {
+                int item = matrix.item(i);
+                int position = fill[item]++;
+                columnUsers[position] = user;
+                columnValues[position] = centered[i];
+                norms[item] += centered[i] * centered[i];
+            }
+        }
+        for (int item = 0; item < items; item++) {
+            norms[item] = (float) Math.sqrt(norms[item]);
+        }
+
+        int[] neighborItems = new int[items * neighbors];
+        float[] neighborSimilarities = new float[items * neighbors];
+        int[] neighborCounts = new int[items];
+        pool.invoke(new RangeTask(0, items, grain(items), (from, to) -> {
+            float[] dot = new float[items];
+            int[] seen = new int[items];
+            int[] touched = new int[items];
+            TopK top = new TopK(neighbors);
+            for (int item = from; item < to; item++) {
+                if (norms[item] == 0) {
+                    continue;
+                }
+                int stamp = item + 1;
+                int touchedCount = 0;
+                for (int c = columnOffsets[item]; c < columnOffsets[item + 1]; c++) {
+                    int user = columnUsers[c];
+                    float value = columnValues[c];
+                    for (int i = matrix.rowStart(user); i < matrix.rowEnd(user); i++) {
+                        int other = matrix.item(i);
+                        if (other == item) {
+                            continue;
+                        }
+                        if (seen[other] != stamp) {
+                            seen[other] = stamp;
+                            dot[other] = 0;
+                            touched[touchedCount++] = other;
+                        }
+                        dot[other] += value * centered[i];
+                    }
+                }
+                top.clear();
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    if (norms[other] > 0 && dot[other] > 0) {
+                        top.offer(other, dot[other] / (norms[item] * norms[other]));
+                    }
+                }
+                neighborCounts[item] = top.drainInto(neighborItems, neighborSimilarities, item * neighbors);
+            }
+        }));
+
+        int[][] recommendations = new int[users][];
+        pool.invoke(new RangeTask(0, users, grain(users), (from, to) -> {
+            float[] score = new float[items];
+            int[] seen = new int[items];
+            int[] rated = new int[items];
+            int[] touched = new int[items];
+            TopK top = new TopK(perUser);
+            int[] bestItems = new int[perUser];
+            float[] bestScores = new float[perUser];
+            for (int user = from; user < to; user++) {
+                int stamp = user + 1;
+                int start = matrix.rowStart(user);
+                int end = matrix.rowEnd(user);
+                for (int i = start; i < end; i++) {
+                    rated[matrix.item(i)] = stamp;
+                }
+                int touchedCount = 0;
+                for (int i = start; i < end; i++) {
+                    int item = matrix.item(i);
+                    float weight = matrix.rating(i) - NEUTRAL_RATING;
+                    int base = item * neighbors;
+                    for (int n = 0; n < neighborCounts[item]; n++) {
+                        int other = neighborItems[base + n];
+                        if (rated[other] == stamp) {
+                            continue;
+                        }
+                        if (seen[other] != stamp) {
+                            seen[other] = stamp;
+                            score[other] = 0;
+                            touched[touchedCount++] = other;
+                        }
+                        score[other] += neighborSimilarities[base + n] * weight;
+                    }
+                }
+                top.clear();
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    if (score[other] > 0) {
+                        top.offer(other, score[other]);
+                    }
+                }
+                int count = top.drainInto(bestItems, bestScores, 0);
+                if (count == 0) {
+                    recommendations[user] = NONE;
+                    continue;
+                }
+                int[] bookIds = new int[count];
+                for (int n = 0; n < count; n++) {
+                    bookIds[n] = matrix.bookId(bestItems[n]);
+                }
+                recommendations[user] = bookIds;
+            }
+        }));
+        return recommendations;
+    }
+
+    /**
+     * About 8 leaves per worker, so an unlucky range of heavy books or users can be balanced
+     */
+    private int grain(int size) {
+        return Math.max(1, size / (pool.getParallelism() * 8));
+    }
+
+    @FunctionalInterface
+    private interface RangeWork {
+        void run(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeWork work;
+
+        private RangeTask(int from, int to, int grain, RangeWork work) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                work.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grain, work), new RangeTask(middle, to, grain, work));
+        }
+    }
+
+    /**
+     * Bounded min-heap of (index, score) on primitive arrays: keeps the k highest
+     * scores, ties going to the lower index
+     */
+    static final class TopK {
+        private final int[] indices;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            this.indices = new int[k];
+            this.scores = new float[k];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int index, float score) {
+            if (size < indices.length) {
+                indices[size] = index;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(index, score, indices[0], scores[0])) {
+                indices[0] = index;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Writes the kept entries best first at {@code offset}, empties the heap and returns the count
+         */
+        int drainInto(int[] outIndices, float[] outScores, int offset) {
+            int count = size;
+            while (size > 0) {
+                int last = offset + size - 1;
+                outIndices[last] = indices[0];
+                outScores[last] = scores[0];
+                size--;
+                indices[0] = indices[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return count;
+        }
+
+        private static boolean better(int index, float score, int otherIndex, float otherScore) {
+            return score > otherScore || (score == otherScore && index < otherIndex);
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!better(indices[parent], scores[parent], indices[position], scores[position])) {
+                    return;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int worst = position;
+                for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                    if (better(indices[worst], scores[worst], indices[child], scores[child])) {
+                        worst = child;
+                    }
+                }
+                if (worst == position) {
+                    return;
+                }
+                swap(position, worst);
+                position = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int index = indices[a];
+            indices[a] = indices[b];
+            indices[b] = index;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.UserRatingClient;
+import com.books.recommendedservice.dto.BookDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user recommendations for GET /api/recommended?user=X, computed offline.
+ *
+ * A background job reads every user rating from BookService, runs
+ * {@link ItemItemRecommender} on a ForkJoin pool and publishes the top books of
+ * every user as one immutable map, so a request is a single hash lookup.
+ * Book details are taken from the catalog at batch time and can lag behind
+ * BookService by up to one refresh interval.
+ */
+@Component
+public class PersonalRecommender {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonalRecommender.class);
+
+    private final UserRatingClient userRatingClient;
+    private final BookServiceClient bookServiceClient;
+    private final boolean enabled;
+    private final long refreshIntervalMs;
+    private final int neighbors;
+    private final int perUser;
+    private final int parallelism;
+    private final Timer batchTimer;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), 0);
+    private ScheduledExecutorService scheduler;
+
+    public PersonalRecommender(UserRatingClient userRatingClient,
+                               BookServiceClient bookServiceClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${recommendations.personal.enabled:true}") boolean enabled,
+                               @Value("${recommendations.personal.refresh-interval-ms:600000}") long refreshIntervalMs,
+                               @Value("${recommendations.personal.neighbors:20}") int neighbors,
+                               @Value("${recommendations.personal.per-user:50}") int perUser,
+                               @Value("${recommendations.personal.parallelism:0}") int parallelism) {
+        this.userRatingClient = userRatingClient;
+        this.bookServiceClient = bookServiceClient;
+        this.enabled = enabled;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.neighbors = neighbors;
+        this.perUser = perUser;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchTimer = Timer.builder("recommended.personal.batch")
+                .description("Time to recompute the per-user recommendations (ratings download included)")
+                .register(meterRegistry);
+        Gauge.builder("recommended.personal.users", this, recommender -> recommender.snapshot.books.size())
+                .description("Number of users with precomputed recommendations")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "personal-recommendations");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Personal recommendations not refreshed, keeping the previous ones: {}", e.getMessage());
+            }
+        }, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Precomputed top {@code limit} books for the user, empty when there are none
+     * (new user, no ratings yet, or before the first batch)
+     */
+    public Optional<Recommendations> recommend(String userId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        Snapshot current = snapshot;
+        BookDto[] books = current.books.get(userId);
+        if (books == null) {
+            return Optional.empty();
+        }
+        List<BookDto> top = Arrays.asList(books).subList(0, Math.min(limit, books.length));
+        return Optional.of(new Recommendations(top, System.currentTimeMillis() - current.computedAt, false));
+    }
+
+    /**
+     * Runs the batch once and publishes the result
+     */
+    void refresh() {
+        long start = System.nanoTime();
+        RatingMatrix.Builder builder = RatingMatrix.builder();
+        userRatingClient.forEachRating(rating -> {
+            if (rating.getUserId() != null && rating.getBookId() != null && rating.getRating() != null) {
+                builder.add(rating.getUserId(), rating.getBookId(), rating.getRating());
+            }
+        });
+        RatingMatrix matrix = builder.build();
+
+        Map<Integer, BookDto> catalog = new HashMap<>();
+        for (BookDto book : bookServiceClient.getCatalog().getBooks()) {
+            catalog.put(book.getId(), book);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        int[][] recommended;
+        try {
+            recommended = new ItemItemRecommender(pool, neighbors, perUser).recommend(matrix);
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, BookDto[]> books = new HashMap<>(matrix.userCount() * 4 / 3 + 1);
+        for (int user = 0; user < matrix.userCount(); user++) {
+            BookDto[] resolved = Arrays.stream(recommended[user])
+                    .mapToObj(catalog::get)
+                    .filter(Objects::nonNull)
+                    .toArray(BookDto[]::new);
+            if (resolved.length > 0) {
+                books.put(matrix.userId(user), resolved);
+            }
+        }
+        snapshot = new Snapshot(books, System.currentTimeMillis());
+        long elapsed = System.nanoTime() - start;
+        batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Recommendations for {} users from {} ratings of {} books computed in {} ms",
+                books.size(), matrix.ratingCount(), matrix.itemCount(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static final class Snapshot {
+        private final Map<String, BookDto[]> books;
+        private final long computedAt;
+
+        private Snapshot(Map<String, BookDto[]> books, long computedAt) {
+            this.books = books;
+            this.computedAt = computedAt;
+        }
+    }
+}
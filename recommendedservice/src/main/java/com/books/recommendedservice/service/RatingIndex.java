@@ -0,0 +1,169 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.dto.BookDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of books bucketed by rating (1-10), like a counting sort.
+ *
+ * Readers take the highest-rated books bucket by bucket, so top-N costs O(N)
+ * with no comparisons and no per-request sort. Writers publish a new immutable
+ * snapshot, copying only the buckets they touch, so a reader always sees one
+ * consistent version of the catalog even while updates are applied.
+ * Within a bucket books keep the order in which they were added.
+ */
+@Component
+public class RatingIndex {
+
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 10;
+
+    private static final BookDto[] EMPTY_BUCKET = new BookDto[0];
+
+    /** Current state of the catalog, guarded by this for writes */
+    private final Map<Integer, BookDto> booksById = new HashMap<>();
+
+    private volatile BookDto[][] buckets = emptyBuckets();
+
+    /**
+     * Replaces the whole index with the given catalog in O(n).
+     */
+    public synchronized void replaceAll(Collection<BookDto> books) {
+        int[] counts = new int[MAX_RATING + 1];
+        booksById.clear();
+        for (BookDto book : books) {
+            BookDto previous = booksById.put(book.getId(), book);
+            if (previous != null) {
+                counts[bucketOf(previous)]--;
+            }
+            counts[bucketOf(book)]++;
+        }
+
+        BookDto[][] next = new BookDto[MAX_RATING + 1][];
+        int[] fill = new int[MAX_RATING + 1];
+        for (int rating = 0; rating <= MAX_RATING; rating++) {
+            next[rating] = counts[rating] == 0 ? EMPTY_BUCKET : new BookDto[counts[rating]];
+        }
+        for (BookDto book : books) {
+            // Skip entries that were superseded by a later duplicate ID
+            if (booksById.get(book.getId()) == book) {
+                int rating = bucketOf(book);
+                next[rating][fill[rating]++] = book;
+            }
+        }
+        buckets = next;
+    }
+
+    /**
+     * Adds a book or replaces the book with the same ID.
+     * Only the affected buckets are copied.
+     */
+    public synchronized void upsert(BookDto book) {
+        BookDto previous = booksById.put(book.getId(), book);
+        BookDto[][] next = buckets.clone();
+        int rating = bucketOf(book);
+
+        if (previous != null && bucketOf(previous) == rating) {
+            // Same bucket: replace in place to keep the book's position
+            BookDto[] bucket = next[rating].clone();
+            bucket[indexOf(bucket, previous.getId())] = book;
+            next[rating] = bucket;
+        } else {
+            if (previous != null) {
+                next[bucketOf(previous)] = without(next[bucketOf(previous)], previous.getId());
+            }
+            BookDto[] bucket = Arrays.copyOf(next[rating], next[rating].length + 1);
+            bucket[bucket.length - 1] = book;
+            next[rating] = bucket;
+        }
+        buckets = next;
+    }
+
+    /**
+     * Removes the book with the given ID, if present.
+     */
+    public synchronized void remove(Integer id) {
+        BookDto previous = booksById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        BookDto[][] next = buckets.clone();
+        next[bucketOf(previous)] = without(next[bucketOf(previous)], id);
+        buckets = next;
+    }
+
+    /**
+     * Highest-rated books first, at most {@code limit} of them.
+     */
+    public List<BookDto> topN(int limit) {
+        BookDto[][] current = buckets;
+        List<BookDto> result = new ArrayList<>(Math.min(limit, sizeOf(current)));
+        for (int rating = MAX_RATING; rating >= MIN_RATING && result.size() < limit; rating--) {
+            BookDto[] bucket = current[rating];
+            int take = Math.min(bucket.length, limit - result.size());
+            for (int i = 0; i < take; i++) {
+                result.add(bucket[i]);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return sizeOf(buckets);
+    }
+
+    /**
+     * Out-of-range or missing ratings are clamped so every book stays listed.
+     */
+    private static int bucketOf(BookDto book) {
+        Integer rating = book.getRating();
+        if (rating == null || rating < MIN_RATING) {
+            return MIN_RATING;
+        }
+        return Math.min(rating, MAX_RATING);
+    }
+
+    private static int sizeOf(BookDto[][] buckets) {
+        int size = 0;
+        for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+            size += buckets[rating].length;
+        }
+        return size;
+    }
+
+    private static int indexOf(BookDto[] bucket, Integer id) {
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i].getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static BookDto[] without(BookDto[] bucket, Integer id) {
+        int index = indexOf(bucket, id);
+        if (index < 0) {
+            return bucket;
+        }
+        if (bucket.length == 1) {
+            return EMPTY_BUCKET;
+        }
+        BookDto[] result = new BookDto[bucket.length - 1];
+        System.arraycopy(bucket, 0, result, 0, index);
+        System.arraycopy(bucket, index + 1, result, index, bucket.length - index - 1);
+        return result;
+    }
+
+    private static BookDto[][] emptyBuckets() {
+        BookDto[][] empty = new BookDto[MAX_RATING + 1][];
+        Arrays.fill(empty, EMPTY_BUCKET);
+        return empty;
+    }
+}
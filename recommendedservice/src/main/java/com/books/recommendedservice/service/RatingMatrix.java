@@ -0,0 +1,138 @@
+package com.books.recommendedservice.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * User x book rating matrix in compressed sparse row form, on primitive arrays.
+ *
+ * Users and books are renumbered densely (0..users-1, 0..books-1) in the order
+ * they are first seen; row {@code u} holds the book indices and ratings of user
+ * {@code u} in {@code items[rowStart(u)..rowEnd(u))}. One rating per user and
+ * book is expected (BookService keeps only the latest).
+ */
+public final class RatingMatrix {
+
+    private final String[] userIds;
+    private final int[] bookIds;
+    private final int[] rowOffsets;
+    private final int[] items;
+    private final byte[] ratings;
+
+    private RatingMatrix(String[] userIds, int[] bookIds, int[] rowOffsets, int[] items, byte[] ratings) {
+        this.userIds = userIds;
+        this.bookIds = bookIds;
+        this.rowOffsets = rowOffsets;
+        this.items = items;
+        this.ratings = ratings;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int itemCount() {
+        return bookIds.length;
+    }
+
+    public int ratingCount() {
+        return items.length;
+    }
+
+    public String userId(int user) {
+        return userIds[user];
+    }
+
+    public int bookId(int item) {
+        return bookIds[item];
+    }
+
+    int rowStart(int user) {
+        return rowOffsets[user];
+    }
+
+    int rowEnd(int user) {
+        return rowOffsets[user + 1];
+    }
+
+    int item(int index) {
+        return items[index];
+    }
+
+    int rating(int index) {
+        return ratings[index];
+    }
+
+    /**
+     * Collects rating events, then lays them out by user (counting sort, O(ratings))
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> userIndex = new HashMap<>();
+        private final Map<Integer, Integer> itemIndex = new HashMap<>();
+        private String[] userIds = new String[16];
+        private int[] bookIds = new int[16];
+        private int[] eventUsers = new int[64];
+        private int[] eventItems = new int[64];
+        private byte[] eventRatings = new byte[64];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(String userId, int bookId, int rating) {
+            int user = userIndex.computeIfAbsent(userId, id -> {
+                int index = userIndex.size();
+                if (index == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, index * 2);
+                }
+                userIds[index] = id;
+                return index;
+            });
+            int item = itemIndex.computeIfAbsent(bookId, id -> {
+                int index = itemIndex.size();
+                if (index == bookIds.length) {
+                    bookIds = Arrays.copyOf(bookIds, index * 2);
+                }
+                bookIds[index] = id;
+                return index;
+            });
+            if (size == eventUsers.length) {
+                eventUsers = Arrays.copyOf(eventUsers, size * 2);
+                eventItems = Arrays.copyOf(eventItems, size * 2);
+                eventRatings = Arrays.copyOf(eventRatings, size * 2);
+            }
+            eventUsers[size] = user;
+            eventItems[size] = item;
+            eventRatings[size] = (byte) rating;
+            size++;
+            return this;
+        }
+
+        public RatingMatrix build() {
+            int users = userIndex.size();
+            int[] rowOffsets = new int[users + 1];
+            for (int i = 0; i < size; i++) {
+                rowOffsets[eventUsers[i] + 1]++;
+            }
+            for (int user = 0; user < users; user++) {
+                rowOffsets[user + 1] += rowOffsets[user];
+            }
+            int[] fill = Arrays.copyOf(rowOffsets, users);
+            int[] items = new int[size];
+            byte[] ratings = new byte[size];
+            for (int i = 0; i < size; i++) {
+                int position = fill[eventUsers[i]]++;
+                items[position] = eventItems[i];
+                ratings[position] = eventRatings[i];
+            }
+            return new RatingMatrix(Arrays.copyOf(userIds, users), Arrays.copyOf(bookIds, itemIndex.size()),
+                    rowOffsets, items, ratings);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import com.books.recommendedservice.client.ReactiveBookServiceClient;
+import com.books.recommendedservice.dto.BookDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of RecommendedService, used by /api/v2/recommended.
+ *
+ * Like RecommendedService, falls back to the last known catalog of BookServiceClient
+ * (in memory or restored from disk, up to max-stale old) when BookService is unavailable.
+ */
+@Service
+public class ReactiveRecommendedService {
+
+    private final ReactiveBookServiceClient bookServiceClient;
+    private final BookServiceClient catalogClient;
+    private final RatingIndex ratingIndex;
+    private final BookChangeSubscriber bookChangeSubscriber;
+    private final int topRatedMaxLimit;
+
+    public ReactiveRecommendedService(ReactiveBookServiceClient bookServiceClient,
+                                      BookServiceClient catalogClient,
+                                      RatingIndex ratingIndex,
+                                      BookChangeSubscriber bookChangeSubscriber,
+                                      @Value("${bookservice.client.top-rated-max-limit:1000}") int topRatedMaxLimit) {
+        this.bookServiceClient = bookServiceClient;
+        this.catalogClient = catalogClient;
+        this.ratingIndex = ratingIndex;
+        this.bookChangeSubscriber = bookChangeSubscriber;
+        this.topRatedMaxLimit = topRatedMaxLimit;
+    }
+
+    /**
+     * Gets the top {@code limit} books by rating (highest first)
+     */
+    public Mono<List<BookDto>> getRecommendedBooksByRatingDesc(int limit) {
+        if (limit < 1) {
+            return Mono.error(new IllegalArgumentException("Limit must be at least 1"));
+        }
+        // Live replica kept in sync by the change feed: no upstream call at all
+        if (bookChangeSubscriber.isSynced()) {
+            return Mono.fromSupplier(() -> ratingIndex.topN(limit));
+        }
+        // A bounded top-N is sorted and limited by BookService, only N books are transferred
+        if (limit <= topRatedMaxLimit) {
+            return bookServiceClient.getTopRated(limit)
+                    .collectList()
+                    .onErrorResume(BookServiceUnavailableException.class, e -> lastKnownTopN(limit));
+        }
+        // Otherwise rank a freshly fetched catalog in a private index (O(n) bucketing),
+        // leaving the shared index to the replica and the servlet API
+        return bookServiceClient.getAllBooks()
+                .collectList()
+                .map(books -> topN(books, limit))
+                .onErrorResume(BookServiceUnavailableException.class, e -> lastKnownTopN(limit));
+    }
+
+    /**
+     * Top N of the catalog snapshot, or BookServiceUnavailableException when there is none.
+     * The snapshot lookup may try BookService once more (through the shared circuit breaker),
+     * so it runs off the event loop.
+     */
+    private Mono<List<BookDto>> lastKnownTopN(int limit) {
+        return Mono.fromCallable(() -> topN(catalogClient.getCatalogSnapshot().getCatalog().getBooks(), limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static List<BookDto> topN(List<BookDto> books, int limit) {
+        RatingIndex ranking = new RatingIndex();
+        ranking.replaceAll(books);
+        return ranking.topN(limit);
+    }
+}
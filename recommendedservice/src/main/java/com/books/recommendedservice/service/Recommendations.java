@@ -0,0 +1,35 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.dto.BookDto;
+
+import java.util.List;
+
+/**
+ * Recommended books plus the age of the catalog they were ranked from.
+ * Stale means BookService could not confirm that catalog on the last attempt.
+ */
+public class Recommendations {
+
+    private final List<BookDto> books;
+    private final long ageMillis;
+    private final boolean stale;
+
+    public Recommendations(List<BookDto> books, long ageMillis, boolean stale) {
+        this.books = books;
+        this.ageMillis = ageMillis;
+        this.stale = stale;
+    }
+
+    // Getters
+    public List<BookDto> getBooks() {
+        return books;
+    }
+
+    public long getAgeMillis() {
+        return ageMillis;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
@@ -1,20 +1,48 @@
 package com.books.recommendedservice.service;
 
 import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import com.books.recommendedservice.client.CatalogSnapshot;
 import com.books.recommendedservice.dto.BookDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class RecommendedService {
     
     private final BookServiceClient bookServiceClient;
+    private final RatingIndex ratingIndex;
+    private final BookChangeSubscriber bookChangeSubscriber;
+    private final Timer indexTimer;
+    private final Timer topNTimer;
+    private final int topRatedMaxLimit;
     
-    public RecommendedService(BookServiceClient bookServiceClient) {
+    /**
+     * Fetched catalog and its ranking, served while the replica is not synced; only the
+     * replica writes ratingIndex. Replaced as a whole, so the index always matches its books.
+     */
+    private volatile IndexedCatalog fallback;
+    
+    public RecommendedService(BookServiceClient bookServiceClient,
+                              RatingIndex ratingIndex,
+                              BookChangeSubscriber bookChangeSubscriber,
+                              MeterRegistry meterRegistry,
+                              @Value("${bookservice.client.top-rated-max-limit:1000}") int topRatedMaxLimit) {
         this.bookServiceClient = bookServiceClient;
+        this.ratingIndex = ratingIndex;
+        this.bookChangeSubscriber = bookChangeSubscriber;
+        this.indexTimer = rankingTimer(meterRegistry, "index");
+        this.topNTimer = rankingTimer(meterRegistry, "top-n");
+        this.topRatedMaxLimit = topRatedMaxLimit;
+        Gauge.builder("recommended.catalog.size", this, RecommendedService::catalogSize)
+                .description("Number of books in the rating index currently served")
+                .register(meterRegistry);
     }
     
     /**
@@ -27,12 +55,100 @@ public class RecommendedService {
      * Future: Pluggable SortingStrategy interface
      */
     public List<BookDto> getRecommendedBooksByRatingDesc() {
-        // 1. Fetch all books from BookService
-        List<BookDto> allBooks = bookServiceClient.getAllBooks();
+        return getRecommendedBooksByRatingDesc(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Gets the top {@code limit} books by rating (highest first)
+     */
+    public List<BookDto> getRecommendedBooksByRatingDesc(int limit) {
+        return getRecommendations(limit).getBooks();
+    }
+    
+    /**
+     * Top {@code limit} books by rating, with the age of the catalog they were taken from
+     */
+    public Recommendations getRecommendations(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        
+        // 1. Without a live replica (change feed disabled, still loading or failing for longer
+        //    than max-stale), a bounded top-N is sorted and limited by BookService on its rating
+        //    index, so only N books are transferred. If that fails, fall back to the catalog snapshot below.
+        boolean synced = bookChangeSubscriber.isSynced();
+        if (!synced && limit <= topRatedMaxLimit) {
+            try {
+                return new Recommendations(bookServiceClient.getTopRated(limit), 0, false);
+            } catch (BookServiceUnavailableException e) {
+                // The snapshot path serves the last good catalog, or rethrows
+            }
+        }
+        
+        // 2. Otherwise fetch all books from BookService and bucket them by rating in O(n)
+        //    (an unchanged catalog comes back as the same instance after a 304, no re-indexing)
+        //    (the client may answer from its last snapshot when BookService is slow or down)
+        if (!synced) {
+            CatalogSnapshot snapshot = bookServiceClient.getCatalogSnapshot();
+            IndexedCatalog indexed = index(snapshot.getCatalog().getBooks());
+            return new Recommendations(topN(indexed.index, limit), snapshot.getAgeMillis(), snapshot.isStale());
+        }
+        
+        // 3. Take the highest buckets first (ratings are bounded to 1-10, no comparison sort),
+        //    aged from the last poll BookService answered
+        return new Recommendations(topN(ratingIndex, limit),
+                bookChangeSubscriber.getAgeMillis(), bookChangeSubscriber.isStale());
+    }
+    
+    /**
+     * The fallback ranking of {@code books}, built into a new index unless it is the one already held
+     */
+    private IndexedCatalog index(List<BookDto> books) {
+        IndexedCatalog indexed = fallback;
+        if (indexed != null && indexed.books == books) {
+            return indexed;
+        }
+        long start = System.nanoTime();
+        RatingIndex index = new RatingIndex();
+        index.replaceAll(books);
+        indexTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        indexed = new IndexedCatalog(books, index);
+        // Concurrent callers with different catalogs each publish a consistent pair; a later
+        // call with another catalog instance rebuilds, so an older pair never sticks
+        fallback = indexed;
+        return indexed;
+    }
+    
+    private double catalogSize() {
+        if (bookChangeSubscriber.isSynced()) {
+            return ratingIndex.size();
+        }
+        IndexedCatalog indexed = fallback;
+        return indexed != null ? indexed.index.size() : 0;
+    }
+    
+    private List<BookDto> topN(RatingIndex index, int limit) {
+        long start = System.nanoTime();
+        List<BookDto> books = index.topN(limit);
+        topNTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return books;
+    }
+    
+    private static Timer rankingTimer(MeterRegistry meterRegistry, String step) {
+        return Timer.builder("recommended.ranking")
+                .description("Time spent ranking books (index = rebuilding the rating index, top-n = reading the top books)")
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    private static final class IndexedCatalog {
+        private final List<BookDto> books;
+        private final RatingIndex index;
         
-        // 2. Sort by rating in descending order (highest rating first)
-        return allBooks.stream()
-                .sorted(Comparator.comparing(BookDto::getRating).reversed())
-                .collect(Collectors.toList());
+        private IndexedCatalog(List<BookDto> books, RatingIndex index) {
+            this.books = books;
+            this.index = index;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.books.recommendedservice.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling on virtual threads (one per request, no pool).
+ * 
+ * Only compiled with -Pjava21 and only active with spring.threads.virtual.enabled=true
+ * (the property Spring Boot 3.2 uses for the same feature, so this class can be
+ * dropped after an upgrade). Outbound RestTemplate calls run on the request
+ * thread, so a request waiting on a slow bookservice parks its virtual thread
+ * instead of holding one of the server.tomcat.threads.max platform threads.
+ * The HTTP connection pool (bookservice.http.max-connections-per-route) still
+ * bounds concurrent upstream calls.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,294 @@
+package com.books.recommendedservice.perf;
+
+import com.books.bookservice.BookServiceApplication;
+import com.books.recommendedservice.RecommendedServiceApplication;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of /api/recommended -> BookServiceClient -> /api/books -> BookRepository.
+ * 
+ * Starts an in-memory MongoDB stand-in (mongo-java-server), bookservice and
+ * recommendedservice in this JVM, seeds the catalog, then drives open-loop load:
+ * requests are sent at a fixed rate whatever the response times, and latency is
+ * measured from the scheduled send time, so a stall shows up in the percentiles
+ * instead of silently lowering the request rate.
+ * 
+ * By default the recommendedservice change feed, stale-while-revalidate and the
+ * coalesce window are off, so every /api/recommended request walks the whole chain.
+ * Admission control is off too, so no request is shed with 503 and the latency and
+ * error columns only measure the chain. The catalog snapshot is written to a fresh
+ * temporary directory, so a run never restores the catalog of an earlier one.
+ * Any -Dperf.bs.<property>=<value> / -Dperf.rs.<property>=<value> is passed to
+ * bookservice / recommendedservice and replaces the default above, e.g.
+ * -Dperf.rs.bookservice.change-feed.enabled=true or -Dperf.rs.recommendations.admission.enabled=true.
+ * 
+ * mvn test -Pperf -Dperf.rate=200 -Dperf.durationSeconds=30 -Dperf.books=1000
+ */
+class EndToEndLoadTest {
+
+    private static final int RATE = Integer.getInteger("perf.rate", 100);
+    private static final int DURATION_SECONDS = Integer.getInteger("perf.durationSeconds", 20);
+    private static final int WARMUP_SECONDS = Integer.getInteger("perf.warmupSeconds", 5);
+    private static final int BOOKS = Integer.getInteger("perf.books", 1000);
+    private static final String ENDPOINTS = System.getProperty("perf.endpoints",
+            "recommended=rs:/api/recommended,recommendedTop10=rs:/api/recommended?limit=10,books=bs:/api/books,bookById=bs:/api/books/1");
+    private static final String REPORT = System.getProperty("perf.report", "target/perf-report.json");
+
+    private MongoServer mongoServer;
+    private ConfigurableApplicationContext bookService;
+    private ConfigurableApplicationContext recommendedService;
+    private String bookServiceUrl;
+    private String recommendedServiceUrl;
+    private HttpClient httpClient;
+    private Path snapshotDirectory;
+
+    @BeforeEach
+    void startStack() throws Exception {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongo = mongoServer.bind();
+
+        Map<String, String> bookServiceArgs = new LinkedHashMap<>();
+        bookServiceArgs.put("spring.config.location", "file:../bookservice/src/main/resources/application.yml");
+        bookServiceArgs.put("server.port", "0");
+        bookServiceArgs.put("spring.data.mongodb.host", mongo.getHostString());
+        bookServiceArgs.put("spring.data.mongodb.port", String.valueOf(mongo.getPort()));
+        bookServiceArgs.put("books.capacity", String.valueOf(Math.max(BOOKS, 21)));
+        bookServiceArgs.put("logging.level.root", "WARN");
+        bookService = new SpringApplicationBuilder(BookServiceApplication.class)
+                .run(args(bookServiceArgs, "perf.bs."));
+        bookServiceUrl = "http://127.0.0.1:" + bookService.getEnvironment().getProperty("local.server.port");
+
+        snapshotDirectory = Files.createTempDirectory("perf-catalog");
+        Map<String, String> recommendedServiceArgs = new LinkedHashMap<>();
+        recommendedServiceArgs.put("spring.config.location", "file:src/main/resources/application.yml");
+        recommendedServiceArgs.put("server.port", "0");
+        recommendedServiceArgs.put("bookservice.url", bookServiceUrl + "/api/books");
+        recommendedServiceArgs.put("bookservice.change-feed.enabled", "false");
+        recommendedServiceArgs.put("bookservice.client.stale-while-revalidate", "false");
+        recommendedServiceArgs.put("bookservice.client.coalesce-window-ms", "0");
+        recommendedServiceArgs.put("bookservice.snapshot.path", snapshotDirectory.resolve("catalog.snapshot").toString());
+        recommendedServiceArgs.put("recommendations.admission.enabled", "false");
+        recommendedServiceArgs.put("logging.level.root", "WARN");
+        recommendedService = new SpringApplicationBuilder(RecommendedServiceApplication.class)
+                .run(args(recommendedServiceArgs, "perf.rs."));
+        recommendedServiceUrl = "http://127.0.0.1:" + recommendedService.getEnvironment().getProperty("local.server.port");
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        seedCatalog();
+    }
+
+    @AfterEach
+    void stopStack() {
+        if (recommendedService != null) {
+            recommendedService.close();
+        }
+        if (bookService != null) {
+            bookService.close();
+        }
+        if (mongoServer != null) {
+            mongoServer.shutdownNow();
+        }
+        if (snapshotDirectory != null) {
+            try (Stream<Path> files = Files.walk(snapshotDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            } catch (IOException e) {
+                System.err.println("Could not delete " + snapshotDirectory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void openLoopLoad() throws Exception {
+        Map<String, URI> endpoints = endpoints();
+        System.out.printf("Open-loop load: %d req/s per endpoint, %d s (after %d s warm-up), %d books%n",
+                RATE, DURATION_SECONDS, WARMUP_SECONDS, BOOKS);
+
+        run(endpoints, WARMUP_SECONDS);
+        Map<String, Result> results = run(endpoints, DURATION_SECONDS);
+
+        System.out.printf("%-18s %8s %7s %9s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        results.forEach((name, result) -> System.out.println(result.format(name)));
+        writeReport(results);
+    }
+
+    /**
+     * Fires RATE requests per second at every endpoint for {@code seconds}, on a fixed schedule
+     */
+    private Map<String, Result> run(Map<String, URI> endpoints, int seconds) throws Exception {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        endpoints.keySet().forEach(name -> recorders.put(name, new Recorder()));
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long start = System.nanoTime();
+        long total = (long) RATE * seconds;
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            for (Map.Entry<String, URI> endpoint : endpoints.entrySet()) {
+                Recorder recorder = recorders.get(endpoint.getKey());
+                HttpRequest request = HttpRequest.newBuilder(endpoint.getValue()).timeout(Duration.ofSeconds(30)).build();
+                inFlight.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) ->
+                                recorder.record(System.nanoTime() - scheduled, error == null && response.statusCode() == 200)));
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .get(2, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> results.put(name, recorder.result(elapsed)));
+        return results;
+    }
+
+    private void seedCatalog() throws Exception {
+        for (int first = 0; first < BOOKS; first += 500) {
+            StringBuilder batch = new StringBuilder("[");
+            for (int i = first; i < Math.min(BOOKS, first + 500); i++) {
+                batch.append(i == first ? "" : ",")
+                        .append("{\"title\":\"Perf Book ").append(i).append("\",\"rating\":").append(i % 10 + 1).append('}');
+            }
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(bookServiceUrl + "/api/books/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(batch.append(']').toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+            }
+        }
+    }
+
+    private Map<String, URI> endpoints() {
+        Map<String, URI> endpoints = new LinkedHashMap<>();
+        for (String entry : ENDPOINTS.split(",")) {
+            String[] nameAndTarget = entry.split("=", 2);
+            String[] serviceAndPath = nameAndTarget[1].split(":", 2);
+            String base = serviceAndPath[0].equals("bs") ? bookServiceUrl : recommendedServiceUrl;
+            endpoints.put(nameAndTarget[0], URI.create(base + serviceAndPath[1]));
+        }
+        return endpoints;
+    }
+
+    /**
+     * Command line of {@code defaults}, each replaced by a system property {@code prefix}<name> when set
+     */
+    private static String[] args(Map<String, String> defaults, String prefix) {
+        Map<String, String> merged = new LinkedHashMap<>(defaults);
+        Properties properties = System.getProperties();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                merged.put(name.substring(prefix.length()), properties.getProperty(name));
+            }
+        }
+        List<String> args = new ArrayList<>();
+        merged.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return args.toArray(String[]::new);
+    }
+
+    private void writeReport(Map<String, Result> results) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"rate\": ").append(RATE).append(",\n");
+        json.append("  \"durationSeconds\": ").append(DURATION_SECONDS).append(",\n");
+        json.append("  \"books\": ").append(BOOKS).append(",\n");
+        json.append("  \"endpoints\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            json.append(separator).append("    \"").append(entry.getKey()).append("\": ").append(entry.getValue().toJson());
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        Path report = Path.of(REPORT);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.writeString(report, json, StandardCharsets.UTF_8);
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    /**
+     * Collects latencies from the HTTP client threads
+     */
+    private static final class Recorder {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger errors = new AtomicInteger();
+
+        void record(long latencyNanos, boolean success) {
+            latencies.add(latencyNanos);
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        Result result(long elapsedNanos) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return new Result(sorted, errors.get(), elapsedNanos);
+        }
+    }
+
+    private record Result(long[] sortedLatencies, int errors, long elapsedNanos) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentileMillis(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(sortedLatencies.length * p) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        String format(String name) {
+            return String.format("%-18s %8d %7d %9.1f %8.2f %8.2f %8.2f %8.2f", name, sortedLatencies.length, errors,
+                    throughput(), percentileMillis(0.50), percentileMillis(0.95), percentileMillis(0.99), percentileMillis(1.0));
+        }
+
+        String toJson() {
+            return String.format(java.util.Locale.ROOT,
+                    "{\"requests\": %d, \"errors\": %d, \"throughput\": %.1f, \"p50Ms\": %.3f, \"p95Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f}",
+                    sortedLatencies.length, errors, throughput(),
+                    percentileMillis(0.50), percentileMillis(0.95), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.books.recommendedservice.benchmark;
+
+import com.books.recommendedservice.config.BookServiceHttpProperties;
+import com.books.recommendedservice.config.RestTemplateConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the SIMPLE and POOLED request factories against a local stub of GET /api/books.
+ *
+ * The stub counts distinct client ports, i.e. TCP connections opened by the client,
+ * so the output shows connection churn next to throughput and latency.
+ *
+ * Run with: mvn test -Pbenchmark -Dbench.threads=16 -Dbench.requests=2000
+ */
+class BookServiceClientEngineBenchmark {
+
+    private static final int THREADS = Integer.getInteger("bench.threads", 16);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 2000);
+    private static final int BOOKS = Integer.getInteger("bench.books", 21);
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private String url;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < BOOKS; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"id\":").append(i).append(",\"title\":\"Book ").append(i)
+                    .append("\",\"rating\":").append(i % 10 + 1).append('}');
+        }
+        byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        // Without TCP_NODELAY the stub's header/body writes hit the 40ms delayed-ACK stall
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/api/books", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverThreads = Executors.newFixedThreadPool(THREADS);
+        server.setExecutor(serverThreads);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/books";
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void simpleVersusPooled() throws Exception {
+        // Warm up both engines (class loading, JIT) before measuring
+        run(BookServiceHttpProperties.Engine.SIMPLE, REQUESTS / 10);
+        run(BookServiceHttpProperties.Engine.POOLED, REQUESTS / 10);
+
+        Result simple = run(BookServiceHttpProperties.Engine.SIMPLE, REQUESTS);
+        Result pooled = run(BookServiceHttpProperties.Engine.POOLED, REQUESTS);
+
+        System.out.printf("%d requests, %d threads, %d books per response%n", REQUESTS, THREADS, BOOKS);
+        System.out.println(simple);
+        System.out.println(pooled);
+    }
+
+    private Result run(BookServiceHttpProperties.Engine engine, int requests) throws Exception {
+        BookServiceHttpProperties http = new BookServiceHttpProperties();
+        http.setEngine(engine);
+        http.setMaxConnectionsPerRoute(THREADS);
+        RestTemplateConfig config = new RestTemplateConfig();
+        ClientHttpRequestFactory factory = config.bookServiceRequestFactory(http);
+        RestTemplate restTemplate = config.restTemplate(new RestTemplateBuilder(), factory, new SimpleMeterRegistry());
+
+        clientPorts.clear();
+        long[] latencies = new long[requests];
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int first = t;
+                futures.add(clients.submit(() -> {
+                    for (int i = first; i < requests; i += THREADS) {
+                        long begin = System.nanoTime();
+                        restTemplate.getForObject(url, String.class);
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+            if (factory instanceof DisposableBean disposable) {
+                disposable.destroy();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(engine, requests, elapsed, latencies, clientPorts.size());
+    }
+
+    private record Result(BookServiceHttpProperties.Engine engine, int requests, long elapsedNanos,
+                          long[] sortedLatencies, int connections) {
+
+        @Override
+        public String toString() {
+            return String.format("%-6s %8.0f req/s  p50 %6.0f us  p99 %6.0f us  %5d connections",
+                    engine, requests / (elapsedNanos / 1e9),
+                    percentile(0.50) / 1e3, percentile(0.99) / 1e3, connections);
+        }
+
+        private long percentile(double p) {
+            return sortedLatencies[Math.min(sortedLatencies.length - 1, (int) (sortedLatencies.length * p))];
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.books.recommendedservice.benchmark;
+
+import com.books.recommendedservice.RecommendedServiceApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of GET /api/recommended with platform versus virtual request threads
+ * while bookservice (a local stub) answers slowly.
+ * 
+ * Stale-while-revalidate and the change feed are switched off, so every request
+ * thread blocks on the upstream call, as it would on a cold or failing cache.
+ * Admission control is off and the bulkhead is wider than the client concurrency,
+ * so no request is shed, and the catalog snapshot is disabled, so the run neither
+ * restores nor overwrites a local data/catalog.snapshot.
+ * The virtual-thread run needs the java21 build, otherwise it is skipped:
+ * 
+ * mvn test -Pjava21,benchmark -Dtest=VirtualThreadLoadBenchmark -Dbench.concurrency=1000
+ */
+class VirtualThreadLoadBenchmark {
+
+    private static final String VIRTUAL_THREAD_CONFIG = "com.books.recommendedservice.config.VirtualThreadConfig";
+
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 5000);
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 1000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("bench.tomcatThreads", 200);
+    private static final long UPSTREAM_DELAY_MS = Long.getLong("bench.upstreamDelayMs", 200);
+
+    private HttpServer bookService;
+    private ExecutorService bookServiceThreads;
+
+    @BeforeEach
+    void startSlowBookService() throws Exception {
+        byte[] body = "[{\"id\":1,\"title\":\"Clean Code\",\"rating\":9},{\"id\":2,\"title\":\"Refactoring\",\"rating\":8}]"
+                .getBytes(StandardCharsets.UTF_8);
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        bookService = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        bookService.createContext("/api/books", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        bookServiceThreads = Executors.newCachedThreadPool();
+        bookService.setExecutor(bookServiceThreads);
+        bookService.start();
+    }
+
+    @AfterEach
+    void stopSlowBookService() {
+        bookService.stop(0);
+        bookServiceThreads.shutdownNow();
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        System.out.printf("%d requests, %d concurrent, bookservice delay %d ms, %d Tomcat threads%n",
+                REQUESTS, CONCURRENCY, UPSTREAM_DELAY_MS, TOMCAT_THREADS);
+        System.out.println(platform);
+        if (ClassUtils.isPresent(VIRTUAL_THREAD_CONFIG, null)) {
+            System.out.println(run(true));
+        } else {
+            System.out.println("virtual  skipped, build with -Pjava21 on JDK 21");
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        // Command-line arguments, so they take precedence over application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RecommendedServiceApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--bookservice.url=http://127.0.0.1:" + bookService.getAddress().getPort() + "/api/books",
+                        "--bookservice.change-feed.enabled=false",
+                        "--bookservice.client.stale-while-revalidate=false",
+                        "--bookservice.client.coalesce-window-ms=0",
+                        "--bookservice.client.slow-call-ms=60000",
+                        "--bookservice.bulkhead.max-concurrent=" + (CONCURRENCY + 1),
+                        "--bookservice.snapshot.enabled=false",
+                        "--recommendations.admission.enabled=false",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--logging.level.root=WARN")) {
+            URI uri = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/recommended?limit=1");
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+            load(client, uri, Math.min(REQUESTS, CONCURRENCY));
+            return new Result(virtualThreads ? "virtual" : "platform", load(client, uri, REQUESTS));
+        }
+    }
+
+    /**
+     * Closed-loop load: keeps CONCURRENCY requests outstanding until {@code requests} are done
+     */
+    private Measurement load(HttpClient client, URI uri, int requests) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(java.time.Duration.ofSeconds(60)).build();
+        Semaphore outstanding = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            outstanding.acquire();
+            int index = i;
+            long begin = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[index] = System.nanoTime() - begin;
+                if (error != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+                outstanding.release();
+                done.countDown();
+            });
+        }
+        done.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Measurement(requests, elapsed, latencies, errors.get());
+    }
+
+    private record Measurement(int requests, long elapsedNanos, long[] sortedLatencies, int errors) {
+
+        private long percentile(double p) {
+            return sortedLatencies[Math.min(sortedLatencies.length - 1, (int) (sortedLatencies.length * p))];
+        }
+    }
+
+    private record Result(String mode, Measurement measurement) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %7.0f req/s  p50 %5d ms  p99 %5d ms  %d errors",
+                    mode, measurement.requests() / (measurement.elapsedNanos() / 1e9),
+                    measurement.percentile(0.50) / 1_000_000, measurement.percentile(0.99) / 1_000_000,
+                    measurement.errors());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.config.AdaptiveConcurrencyLimiter;
+import com.books.recommendedservice.config.AdaptiveConcurrencyLimiter.Admission;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldReject_WhenLimitReachedAndNoQueue() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10, 0, Duration.ZERO);
+
+        // When
+        Admission first = limiter.acquire();
+        Admission second = limiter.acquire();
+        Admission third = limiter.acquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        Admission afterRelease = limiter.acquire();
+
+        // Then
+        assertEquals(Admission.ACCEPTED, first);
+        assertEquals(Admission.ACCEPTED, second);
+        assertEquals(Admission.REJECTED, third);
+        assertEquals(Admission.ACCEPTED, afterRelease);
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldGrowLimit_WhileLatencyIsStable() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 100, 0, Duration.ZERO);
+
+        // When
+        for (int i = 0; i < 60; i++) {
+            window(limiter, 10);
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() > 40, "limit was " + limiter.getLimit());
+        assertEquals(10, limiter.getBaselineRttMillis());
+    }
+
+    @Test
+    void shouldShrinkLimit_WhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 2, 100, 0, Duration.ZERO);
+        for (int i = 0; i < 60; i++) {
+            window(limiter, 10);
+        }
+        int before = limiter.getLimit();
+
+        // When
+        for (int i = 0; i < 15; i++) {
+            window(limiter, 50);
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() < before / 2, before + " -> " + limiter.getLimit());
+    }
+
+    @Test
+    void shouldNotGrowLimit_WhenMostlyIdle() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 100, 0, Duration.ZERO);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            clock.addAndGet(WINDOW.toNanos() / 10);
+            limiter.acquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+
+        // Then
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void shouldShrinkLimit_OnServerErrors() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 5, 100, 0, Duration.ZERO);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+        int sameWindow = limiter.getLimit();
+        clock.addAndGet(WINDOW.toNanos());
+        limiter.acquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        int afterOne = limiter.getLimit();
+        for (int i = 0; i < 50; i++) {
+            clock.addAndGet(WINDOW.toNanos());
+            limiter.acquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+
+        // Then
+        assertEquals(20, sameWindow);
+        assertEquals(18, afterOne);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void shouldQueue_UntilSlotIsFreed() throws Exception {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 1, Duration.ofSeconds(5));
+        assertEquals(Admission.ACCEPTED, limiter.acquire());
+
+        // When
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Admission> waiter = executor.submit(limiter::acquire);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (limiter.getWaiting() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Admission overQueue = limiter.acquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+
+            // Then
+            assertEquals(Admission.REJECTED, overQueue);
+            assertEquals(Admission.QUEUED, waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(1, limiter.getInFlight());
+            assertEquals(0, limiter.getWaiting());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldReject_WhenQueueWaitTimesOut() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1, 5, Duration.ofMillis(20));
+        limiter.acquire();
+
+        // When
+        Admission admission = limiter.acquire();
+
+        // Then
+        assertEquals(Admission.REJECTED, admission);
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit,
+                                               int maxQueue, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, maxQueue, maxWait, 1.5,
+                WINDOW, clock::get);
+    }
+
+    /**
+     * One sample window under full load: at least 10 requests, all with the same latency
+     */
+    private void window(AdaptiveConcurrencyLimiter limiter, long rttMillis) {
+        clock.addAndGet(WINDOW.toNanos());
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, rttMillis);
+        }
+    }
+
+    /**
+     * Fills every slot, then completes them all with the same latency
+     */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttMillis) {
+        int admitted = 0;
+        while (limiter.acquire() != Admission.REJECTED) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), false);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.config.AdaptiveConcurrencyLimiter;
+import com.books.recommendedservice.config.AdmissionControlFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 0, Duration.ZERO, 1.5, Duration.ofMillis(100));
+        filter = new AdmissionControlFilter(limiter, 2, meterRegistry);
+    }
+
+    @Test
+    void shouldPassRequestThrough_WhenUnderLimit() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recommended"), response, chain);
+
+        // Then
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1.0, admissions("accepted"));
+        assertEquals(0.0, admissions("rejected"));
+    }
+
+    @Test
+    void shouldReturn503WithRetryAfter_WhenOverLimit() throws Exception {
+        // Given
+        limiter.acquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recommended"), response, chain);
+
+        // Then
+        assertNull(chain.getRequest(), "controller must not be reached");
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"httpCode\":503"));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(1.0, admissions("rejected"));
+        assertEquals(1.0, meterRegistry.get("recommended.admission.limit").gauge().value());
+    }
+
+    private double admissions(String outcome) {
+        return meterRegistry.get("recommended.admission.requests").tag("outcome", outcome).counter().count();
+    }
+}
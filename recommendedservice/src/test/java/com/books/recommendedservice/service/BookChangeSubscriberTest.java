@@ -0,0 +1,243 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookCatalog;
+import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.CatalogSnapshotStore;
+import com.books.recommendedservice.dto.BookChangeDto;
+import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.dto.ChangeFeedDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookChangeSubscriberTest {
+
+    @Mock
+    private BookServiceClient bookServiceClient;
+
+    @Mock
+    private CatalogSnapshotStore snapshotStore;
+
+    private RatingIndex ratingIndex;
+    private BookChangeSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        ratingIndex = new RatingIndex();
+        subscriber = new BookChangeSubscriber(bookServiceClient, ratingIndex, snapshotStore, true, 5000, 1000, 60_000, 600_000);
+    }
+
+    @Test
+    void syncOnce_ShouldLoadCatalogThenApplyDeltas() {
+        // Given
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0)).thenReturn(new ChangeFeedDto("epoch-1", 6, false,
+                Arrays.asList(
+                        new BookChangeDto(5, "UPSERT", new BookDto(2, "Refactoring", 10)),
+                        new BookChangeDto(6, "UPSERT", new BookDto(1, "Clean Code", 3)))));
+
+        // When
+        subscriber.syncOnce();
+        assertFalse(subscriber.isSynced());
+        subscriber.syncOnce();
+
+        // Then
+        assertTrue(subscriber.isSynced());
+        assertEquals(2, ratingIndex.size());
+        assertEquals("Refactoring", ratingIndex.topN(1).get(0).getTitle());
+    }
+
+    @Test
+    void syncOnce_ShouldReloadCatalog_WhenFeedAsksForReset() {
+        // Given
+        when(bookServiceClient.getCatalog())
+                .thenReturn(new BookCatalog(Arrays.asList(new BookDto(1, "Old", 5)), "epoch-1", 10L))
+                .thenReturn(new BookCatalog(Arrays.asList(new BookDto(7, "New", 5)), "epoch-2", 1L));
+        when(bookServiceClient.getChanges("epoch-1", 10, 0))
+                .thenReturn(new ChangeFeedDto("epoch-2", 1, true, Collections.emptyList()));
+        when(bookServiceClient.getChanges("epoch-2", 1, 0))
+                .thenReturn(new ChangeFeedDto("epoch-2", 1, false, Collections.emptyList()));
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+
+        // Then
+        assertTrue(subscriber.isSynced());
+        assertEquals(7, ratingIndex.topN(1).get(0).getId());
+        verify(bookServiceClient, times(2)).getCatalog();
+    }
+
+    @Test
+    void syncOnce_ShouldStayUnsynced_WhenBookServiceSendsNoVersion() {
+        // Given
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(Collections.emptyList(), null, null));
+
+        // When
+        subscriber.syncOnce();
+
+        // Then
+        assertFalse(subscriber.isSynced());
+    }
+
+    @Test
+    void syncOnce_ShouldSaveReplica_WhenItChanged() {
+        // Given
+        subscriber = new BookChangeSubscriber(bookServiceClient, ratingIndex, snapshotStore, true, 5000, 1000, 0, 600_000);
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0)).thenReturn(new ChangeFeedDto("epoch-1", 5, false,
+                Arrays.asList(new BookChangeDto(5, "UPSERT", new BookDto(2, "Refactoring", 10)))));
+        when(bookServiceClient.getChanges("epoch-1", 5, 5000))
+                .thenReturn(new ChangeFeedDto("epoch-1", 5, false, Collections.emptyList()));
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+
+        // Then
+        verify(snapshotStore).saveInBackground(argThat(catalog -> catalog.getVersion() == 5
+                && "epoch-1".equals(catalog.getEpoch())
+                && catalog.getBooks().size() == 2
+                && catalog.getBooks().get(0).getId() == 2), isNull());
+        verify(snapshotStore, times(1)).markCurrent();
+    }
+
+    @Test
+    void syncOnce_ShouldNotSaveReplica_WithinSnapshotInterval() {
+        // Given
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0)).thenReturn(new ChangeFeedDto("epoch-1", 5, false,
+                Arrays.asList(new BookChangeDto(5, "UPSERT", new BookDto(2, "Refactoring", 10)))));
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+
+        // Then
+        verify(snapshotStore, never()).saveInBackground(any(), any());
+        verify(snapshotStore, never()).markCurrent();
+    }
+
+    @Test
+    void syncOnce_ShouldNotBeSynced_UntilBookServiceConfirmsLoadedCatalog() {
+        // Given: the client answers with the snapshot restored from disk, BookService is down
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0))
+                .thenThrow(new RuntimeException("BookService change feed is currently unavailable."));
+
+        // When
+        subscriber.syncOnce();
+
+        // Then
+        assertThrows(RuntimeException.class, () -> subscriber.syncOnce());
+        assertFalse(subscriber.isSynced());
+        assertEquals(1, ratingIndex.size());
+    }
+
+    @Test
+    void syncOnce_ShouldNotReloadRejectedCatalog_UntilClientRefreshedIt() {
+        // Given: the restored snapshot is too old for the feed, the refresh has not finished yet
+        BookCatalog restored = new BookCatalog(Arrays.asList(new BookDto(1, "Old", 5)), "epoch-1", 4L);
+        when(bookServiceClient.getCatalog()).thenReturn(restored);
+        when(bookServiceClient.getChanges("epoch-1", 4, 0))
+                .thenReturn(new ChangeFeedDto("epoch-1", 2000, true, Collections.emptyList()));
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+
+        // Then: the run loop backs off instead of polling the feed again
+        assertThrows(IllegalStateException.class, () -> subscriber.syncOnce());
+        verify(bookServiceClient, times(1)).getChanges(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void syncOnce_ShouldKeepStoredETag_WhenReplicaVersionMatches() {
+        // Given
+        subscriber = new BookChangeSubscriber(bookServiceClient, ratingIndex, snapshotStore, true, 5000, 1000, 0, 600_000);
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0)).thenReturn(new ChangeFeedDto("epoch-1", 5, false,
+                Arrays.asList(new BookChangeDto(5, "UPSERT", new BookDto(2, "Refactoring", 10)))));
+        when(bookServiceClient.getCatalogETag("epoch-1", 5)).thenReturn("\"epoch-1-5\"");
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+
+        // Then
+        verify(snapshotStore).saveInBackground(argThat(catalog -> catalog.getVersion() == 5), eq("\"epoch-1-5\""));
+    }
+
+    @Test
+    void syncOnce_ShouldReportReplicaAsStale_WhileFeedFails() {
+        // Given
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0))
+                .thenReturn(new ChangeFeedDto("epoch-1", 4, false, Collections.emptyList()));
+        when(bookServiceClient.getChanges("epoch-1", 4, 5000))
+                .thenThrow(new RuntimeException("BookService change feed is currently unavailable."))
+                .thenReturn(new ChangeFeedDto("epoch-1", 4, false, Collections.emptyList()));
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+        assertFalse(subscriber.isStale());
+        assertEquals(0, subscriber.getAgeMillis());
+        assertThrows(RuntimeException.class, () -> subscriber.syncOnce());
+
+        // Then
+        assertTrue(subscriber.isSynced());
+        assertTrue(subscriber.isStale());
+        subscriber.syncOnce();
+        assertFalse(subscriber.isStale());
+        assertEquals(0, subscriber.getAgeMillis());
+    }
+
+    @Test
+    void isSynced_ShouldBeFalse_OnceFeedFailedForLongerThanMaxStale() throws Exception {
+        // Given
+        subscriber = new BookChangeSubscriber(bookServiceClient, ratingIndex, snapshotStore, true, 5000, 1000, 60_000, 0);
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L));
+        when(bookServiceClient.getChanges("epoch-1", 4, 0))
+                .thenReturn(new ChangeFeedDto("epoch-1", 4, false, Collections.emptyList()));
+        when(bookServiceClient.getChanges("epoch-1", 4, 5000))
+                .thenThrow(new RuntimeException("BookService change feed is currently unavailable."));
+
+        // When
+        subscriber.syncOnce();
+        subscriber.syncOnce();
+        assertThrows(RuntimeException.class, () -> subscriber.syncOnce());
+        Thread.sleep(2);
+
+        // Then
+        assertFalse(subscriber.isSynced());
+        assertTrue(subscriber.getAgeMillis() >= 1);
+    }
+}
@@ -1,25 +1,49 @@
 package com.books.recommendedservice.service;
 
 import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.client.BookCatalog;
 import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.Bulkhead;
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import com.books.recommendedservice.client.CatalogSnapshot;
+import com.books.recommendedservice.client.CatalogSnapshotStore;
+import com.books.recommendedservice.client.CircuitBreaker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,12 +52,19 @@ class BookServiceClientTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @TempDir
+    Path tempDir;
+
     private BookServiceClient bookServiceClient;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogSnapshotStore snapshotStore;
     private String bookServiceUrl = "http://localhost:8080/api/books";
 
     @BeforeEach
     void setUp() {
-        bookServiceClient = new BookServiceClient(restTemplate, bookServiceUrl);
+        meterRegistry = new SimpleMeterRegistry();
+        snapshotStore = new CatalogSnapshotStore(false, tempDir.resolve("catalog.snapshot").toString(), meterRegistry);
+        bookServiceClient = newClient(0, false, 5);
     }
 
     @Test
@@ -49,7 +80,7 @@ class BookServiceClientTest {
         when(restTemplate.exchange(
                 eq(bookServiceUrl),
                 eq(HttpMethod.GET),
-                isNull(),
+                any(HttpEntity.class),
                 any(ParameterizedTypeReference.class)
         )).thenReturn(responseEntity);
 
@@ -63,6 +94,94 @@ class BookServiceClientTest {
         assertEquals(9, result.get(0).getRating());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldRequestSmileBeforeJson() {
+        // Given
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(List.of(), HttpStatus.OK));
+
+        // When
+        bookServiceClient.getAllBooks();
+
+        // Then
+        verify(restTemplate).exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                argThat((HttpEntity<?> entity) -> entity.getHeaders().getAccept().equals(List.of(
+                        MediaType.parseMediaType("application/x-jackson-smile"),
+                        MediaType.parseMediaType("application/json;q=0.9")))),
+                any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTopRated_ShouldAskBookServiceToSortAndLimit() {
+        // Given
+        List<BookDto> topRated = Arrays.asList(new BookDto(2, "Excellent Book", 10));
+        when(restTemplate.exchange(
+                eq(URI.create(bookServiceUrl + "?sort=rating,desc&limit=1")),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(topRated, HttpStatus.OK));
+
+        // When
+        List<BookDto> result = bookServiceClient.getTopRated(1);
+
+        // Then
+        assertSame(topRated, result);
+        assertEquals(1, fetchCount("top-rated", "success"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTopRated_ShouldFailFast_WhenBulkheadIsFull() throws Exception {
+        // Given
+        bookServiceClient = new BookServiceClient(restTemplate, bookServiceUrl, meterRegistry,
+                new CircuitBreaker(1, Duration.ofSeconds(10)), new Bulkhead(1, Duration.ZERO),
+                snapshotStore, 0, false, 60_000, 60_000, true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<BookDto> topRated = Arrays.asList(new BookDto(2, "Excellent Book", 10));
+        when(restTemplate.exchange(
+                any(URI.class),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ResponseEntity<>(topRated, HttpStatus.OK);
+        });
+
+        // When
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<BookDto>> slow = executor.submit(() -> bookServiceClient.getTopRated(1));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            BookServiceUnavailableException rejected =
+                    assertThrows(BookServiceUnavailableException.class, () -> bookServiceClient.getTopRated(1));
+            release.countDown();
+
+            // Then
+            assertSame(topRated, slow.get(5, TimeUnit.SECONDS));
+            assertTrue(rejected.getRetryAfterMillis() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(restTemplate, times(1)).exchange(
+                any(URI.class), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        assertEquals(1, fetchCount("top-rated", "bulkhead-full"));
+        assertEquals(CircuitBreaker.State.CLOSED.ordinal(),
+                (int) meterRegistry.get("bookservice.client.circuit.state").gauge().value());
+        assertSame(topRated, bookServiceClient.getTopRated(1));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     void getAllBooks_ShouldReturnEmptyList_WhenServiceReturnsNull() {
@@ -72,7 +191,7 @@ class BookServiceClientTest {
         when(restTemplate.exchange(
                 eq(bookServiceUrl),
                 eq(HttpMethod.GET),
-                isNull(),
+                any(HttpEntity.class),
                 any(ParameterizedTypeReference.class)
         )).thenReturn(responseEntity);
 
@@ -83,4 +202,323 @@ class BookServiceClientTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldReuseParsedBooks_WhenServiceAnswersNotModified() {
+        // Given
+        List<BookDto> books = Arrays.asList(new BookDto(1, "Clean Code", 9));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"epoch-3\"");
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                argThat((HttpEntity<?> entity) -> entity.getHeaders().getIfNoneMatch().isEmpty()),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(books, headers, HttpStatus.OK));
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                argThat((HttpEntity<?> entity) -> entity.getHeaders().getIfNoneMatch().contains("\"epoch-3\"")),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+        // When
+        List<BookDto> first = bookServiceClient.getAllBooks();
+        List<BookDto> second = bookServiceClient.getAllBooks();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1.0, meterRegistry.get("bookservice.client.responses").tag("status", "200").counter().count());
+        assertEquals(1.0, meterRegistry.get("bookservice.client.responses").tag("status", "304").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldShareOneUpstreamCall_WhenCalledConcurrently() throws Exception {
+        // Given
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        List<BookDto> books = Arrays.asList(new BookDto(1, "Clean Code", 9));
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new ResponseEntity<>(books, HttpStatus.OK);
+        });
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<List<BookDto>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(bookServiceClient::getAllBooks));
+            }
+            awaitCount("coalesced", callers - 1);
+            release.countDown();
+
+            // Then
+            for (Future<List<BookDto>> result : results) {
+                assertSame(books, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(restTemplate, times(1)).exchange(
+                eq(bookServiceUrl), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        assertEquals(1.0, callCount("issued"));
+        assertEquals(callers - 1, callCount("coalesced"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldShareFailure_WithWaitingCallers() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("Connection refused");
+        });
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<BookDto>> first = executor.submit(bookServiceClient::getAllBooks);
+            Future<List<BookDto>> second = executor.submit(bookServiceClient::getAllBooks);
+            awaitCount("coalesced", 1);
+            release.countDown();
+
+            // Then
+            Exception firstError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+            Exception secondError = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertSame(firstError.getCause(), secondError.getCause());
+            assertEquals("BookService is currently unavailable. Please try again later.", firstError.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldReuseResult_WithinCoalesceWindow() {
+        // Given
+        bookServiceClient = newClient(60_000, false, 5);
+        List<BookDto> books = Arrays.asList(new BookDto(1, "Clean Code", 9));
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(books, HttpStatus.OK));
+
+        // When
+        List<BookDto> first = bookServiceClient.getAllBooks();
+        List<BookDto> second = bookServiceClient.getAllBooks();
+
+        // Then
+        assertSame(first, second);
+        verify(restTemplate, times(1)).exchange(
+                eq(bookServiceUrl), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        assertEquals(1.0, callCount("coalesced"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getCatalogSnapshot_ShouldServeSnapshotImmediately_AndRefreshInBackground() throws Exception {
+        // Given
+        bookServiceClient = newClient(0, true, 5);
+        List<BookDto> books = Arrays.asList(new BookDto(1, "Clean Code", 9));
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(books, HttpStatus.OK))
+                .thenThrow(new IllegalStateException("Read timed out"));
+
+        // When
+        CatalogSnapshot first = bookServiceClient.getCatalogSnapshot();
+        CatalogSnapshot second = bookServiceClient.getCatalogSnapshot();
+        // Count before polling: a stale read after the failed refresh legitimately starts another one
+        verify(restTemplate, timeout(5000).times(2)).exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class));
+        double issued = callCount("issued");
+        CatalogSnapshot third = second;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!third.isStale() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            third = bookServiceClient.getCatalogSnapshot();
+        }
+
+        // Then
+        assertFalse(first.isStale());
+        assertSame(books, second.getCatalog().getBooks());
+        assertSame(books, third.getCatalog().getBooks());
+        assertTrue(third.isStale());
+        assertFalse(second.isStale());
+        assertEquals(1.0, issued - 1, "one background refresh");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getCatalogSnapshot_ShouldServeSnapshot_WhenRefreshFails() {
+        // Given
+        List<BookDto> books = Arrays.asList(new BookDto(1, "Clean Code", 9));
+        bookServiceClient = new BookServiceClient(restTemplate, bookServiceUrl, meterRegistry,
+                new CircuitBreaker(5, Duration.ofSeconds(10)), new Bulkhead(20, Duration.ZERO),
+                snapshotStore, 0, false, 60_000, 60_000, true);
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(books, HttpStatus.OK))
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+        // When
+        bookServiceClient.getCatalogSnapshot();
+        CatalogSnapshot snapshot = bookServiceClient.getCatalogSnapshot();
+
+        // Then
+        assertSame(books, snapshot.getCatalog().getBooks());
+        assertTrue(snapshot.isStale());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldFailFast_WhenCircuitIsOpen() {
+        // Given
+        meterRegistry = new SimpleMeterRegistry();
+        bookServiceClient = newClient(0, false, 2);
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenThrow(new IllegalStateException("Connection refused"));
+
+        // When
+        assertThrows(BookServiceUnavailableException.class, () -> bookServiceClient.getAllBooks());
+        assertThrows(BookServiceUnavailableException.class, () -> bookServiceClient.getAllBooks());
+        BookServiceUnavailableException rejected =
+                assertThrows(BookServiceUnavailableException.class, () -> bookServiceClient.getAllBooks());
+
+        // Then
+        verify(restTemplate, times(2)).exchange(
+                eq(bookServiceUrl), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        assertNull(rejected.getCause());
+        assertTrue(rejected.getRetryAfterMillis() > 0);
+        assertEquals(1.0, meterRegistry.get("bookservice.client.circuit.state").gauge().value());
+        assertEquals(2, fetchCount("catalog", "error"));
+        assertEquals(1, fetchCount("catalog", "rejected"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getCatalogSnapshot_ShouldServeRestoredSnapshot_WhenBookServiceIsDownAfterRestart() throws Exception {
+        // Given
+        snapshotStore = new CatalogSnapshotStore(true, tempDir.resolve("catalog.snapshot").toString(), meterRegistry);
+        snapshotStore.save(new BookCatalog(Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L),
+                "\"epoch-1-4\"");
+        bookServiceClient = newClient(0, false, 5);
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenThrow(new IllegalStateException("Connection refused"));
+
+        // When
+        CatalogSnapshot snapshot = bookServiceClient.getCatalogSnapshot();
+
+        // Then
+        assertTrue(snapshot.isStale());
+        assertEquals("Clean Code", snapshot.getCatalog().getBooks().get(0).getTitle());
+        assertEquals("epoch-1", snapshot.getCatalog().getEpoch());
+        assertEquals(4L, snapshot.getCatalog().getVersion());
+        verify(restTemplate).exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                argThat((HttpEntity<?> entity) -> entity.getHeaders().getIfNoneMatch().contains("\"epoch-1-4\"")),
+                any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllBooks_ShouldSaveFullCatalog_ToSnapshot() throws Exception {
+        // Given
+        Path file = tempDir.resolve("catalog.snapshot");
+        snapshotStore = new CatalogSnapshotStore(true, file.toString(), meterRegistry);
+        bookServiceClient = newClient(0, false, 5);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"epoch-1-7\"");
+        headers.set("X-Catalog-Version", "7");
+        when(restTemplate.exchange(
+                eq(bookServiceUrl),
+                eq(HttpMethod.GET),
+                any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)
+        )).thenReturn(new ResponseEntity<>(Arrays.asList(new BookDto(1, "Clean Code", 9)), headers, HttpStatus.OK));
+
+        // When
+        bookServiceClient.getAllBooks();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Files.exists(file) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        // Then
+        CatalogSnapshotStore.StoredCatalog stored = snapshotStore.load().orElseThrow();
+        assertEquals("\"epoch-1-7\"", stored.getEtag());
+        assertEquals(7L, stored.getCatalog().getVersion());
+        assertEquals("Clean Code", stored.getCatalog().getBooks().get(0).getTitle());
+    }
+
+    @Test
+    void getCatalogETag_ShouldReturnRestoredETag_OnlyForSameVersion() throws Exception {
+        // Given
+        snapshotStore = new CatalogSnapshotStore(true, tempDir.resolve("catalog.snapshot").toString(), meterRegistry);
+        snapshotStore.save(new BookCatalog(Arrays.asList(new BookDto(1, "Clean Code", 9)), "epoch-1", 4L),
+                "\"epoch-1-4\"");
+
+        // When
+        bookServiceClient = newClient(0, false, 5);
+
+        // Then
+        assertEquals("\"epoch-1-4\"", bookServiceClient.getCatalogETag("epoch-1", 4));
+        assertNull(bookServiceClient.getCatalogETag("epoch-1", 5));
+        assertNull(bookServiceClient.getCatalogETag("epoch-2", 4));
+    }
+
+    private BookServiceClient newClient(long coalesceWindowMs, boolean staleWhileRevalidate, int failureThreshold) {
+        return new BookServiceClient(restTemplate, bookServiceUrl, meterRegistry,
+                new CircuitBreaker(failureThreshold, Duration.ofSeconds(10)), new Bulkhead(20, Duration.ZERO),
+                snapshotStore, coalesceWindowMs, staleWhileRevalidate, 60_000, 60_000, true);
+    }
+
+    private long fetchCount(String call, String outcome) {
+        return meterRegistry.get("bookservice.client.fetch").tag("call", call).tag("outcome", outcome).timer().count();
+    }
+
+    private double callCount(String outcome) {
+        return meterRegistry.get("bookservice.client.catalog.calls").tag("outcome", outcome).counter().count();
+    }
+
+    private void awaitCount(String outcome, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (callCount(outcome) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
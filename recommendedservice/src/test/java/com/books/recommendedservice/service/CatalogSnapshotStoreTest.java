@@ -0,0 +1,186 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookCatalog;
+import com.books.recommendedservice.client.CatalogSnapshotStore;
+import com.books.recommendedservice.dto.BookDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogSnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("data").resolve("catalog.snapshot");
+        meterRegistry = new SimpleMeterRegistry();
+        store = new CatalogSnapshotStore(true, file.toString(), meterRegistry);
+    }
+
+    @Test
+    void load_ShouldReturnSavedCatalog() throws Exception {
+        // Given
+        BookDto noRating = new BookDto(3, "Ünïcode – 書名", null);
+        BookDto noTitle = new BookDto(4, null, 7);
+        List<BookDto> books = Arrays.asList(new BookDto(1, "Clean Code", 9), noRating, noTitle);
+        store.save(new BookCatalog(books, "epoch-1", 42L), "\"epoch-1-42\"");
+
+        // When
+        CatalogSnapshotStore.StoredCatalog stored = store.load().orElseThrow();
+
+        // Then
+        BookCatalog catalog = stored.getCatalog();
+        assertEquals("epoch-1", catalog.getEpoch());
+        assertEquals(42L, catalog.getVersion());
+        assertEquals("\"epoch-1-42\"", stored.getEtag());
+        assertEquals(3, catalog.getBooks().size());
+        assertEquals("Clean Code", catalog.getBooks().get(0).getTitle());
+        assertEquals(9, catalog.getBooks().get(0).getRating());
+        assertEquals("Ünïcode – 書名", catalog.getBooks().get(1).getTitle());
+        assertNull(catalog.getBooks().get(1).getRating());
+        assertNull(catalog.getBooks().get(2).getTitle());
+        assertEquals(1.0, loads("loaded"));
+    }
+
+    @Test
+    void load_ShouldKeepMissingVersionAndEtag() throws Exception {
+        // Given
+        store.save(new BookCatalog(List.of(), null, null), null);
+
+        // When
+        CatalogSnapshotStore.StoredCatalog stored = store.load().orElseThrow();
+
+        // Then
+        assertNull(stored.getCatalog().getEpoch());
+        assertNull(stored.getCatalog().getVersion());
+        assertNull(stored.getEtag());
+        assertTrue(stored.getCatalog().getBooks().isEmpty());
+    }
+
+    @Test
+    void load_ShouldSkipSnapshot_WhenChecksumDoesNotMatch() throws Exception {
+        // Given
+        store.save(new BookCatalog(List.of(new BookDto(1, "Clean Code", 9)), "epoch-1", 1L), null);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 8] ^= 0x01;
+        Files.write(file, bytes);
+
+        // When
+        Optional<CatalogSnapshotStore.StoredCatalog> stored = store.load();
+
+        // Then
+        assertTrue(stored.isEmpty());
+        assertEquals(1.0, loads("corrupt"));
+    }
+
+    @Test
+    void load_ShouldSkipSnapshot_WhenTruncatedOrNotASnapshot() throws Exception {
+        // Given
+        store.save(new BookCatalog(List.of(new BookDto(1, "Clean Code", 9)), "epoch-1", 1L), null);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // When
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        Optional<CatalogSnapshotStore.StoredCatalog> truncated = store.load();
+        Files.write(file, "{\"books\":[]}".getBytes());
+        Optional<CatalogSnapshotStore.StoredCatalog> notSnapshot = store.load();
+
+        // Then
+        assertTrue(truncated.isEmpty());
+        assertTrue(notSnapshot.isEmpty());
+        assertEquals(2.0, loads("corrupt"));
+    }
+
+    @Test
+    void load_ShouldReturnEmpty_WhenNoSnapshotOrDisabled() throws Exception {
+        // Given
+        CatalogSnapshotStore disabled = new CatalogSnapshotStore(false, file.toString(), new SimpleMeterRegistry());
+
+        // When
+        Optional<CatalogSnapshotStore.StoredCatalog> none = store.load();
+        store.save(new BookCatalog(List.of(), "epoch-1", 1L), null);
+        Optional<CatalogSnapshotStore.StoredCatalog> ignored = disabled.load();
+
+        // Then
+        assertTrue(none.isEmpty());
+        assertTrue(ignored.isEmpty());
+        assertEquals(1.0, loads("missing"));
+    }
+
+    @Test
+    void save_ShouldReplaceSnapshot_WithoutLeavingTempFiles() throws Exception {
+        // Given
+        store.save(new BookCatalog(List.of(new BookDto(1, "Old", 5)), "epoch-1", 1L), null);
+
+        // When
+        store.save(new BookCatalog(List.of(new BookDto(2, "New", 8)), "epoch-1", 2L), null);
+
+        // Then
+        assertEquals("New", store.load().orElseThrow().getCatalog().getBooks().get(0).getTitle());
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void saveInBackground_ShouldRetryCatalog_WhenEarlierWriteFailed() throws Exception {
+        // Given
+        Files.createDirectories(tempDir);
+        Files.write(file.getParent(), new byte[0]);
+        BookCatalog catalog = new BookCatalog(List.of(new BookDto(1, "Clean Code", 9)), "epoch-1", 1L);
+        store.saveInBackground(catalog, null);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writeFailures() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Files.delete(file.getParent());
+
+        // When
+        store.saveInBackground(catalog, null);
+        store.close();
+
+        // Then
+        assertEquals(1.0, writeFailures());
+        assertEquals("Clean Code", store.load().orElseThrow().getCatalog().getBooks().get(0).getTitle());
+    }
+
+    @Test
+    void markCurrent_ShouldRefreshSavedAt() throws Exception {
+        // Given
+        store.save(new BookCatalog(List.of(), "epoch-1", 1L), null);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        long before = store.load().orElseThrow().getSavedAtMillis();
+
+        // When
+        store.markCurrent();
+
+        // Then
+        long after = store.load().orElseThrow().getSavedAtMillis();
+        assertTrue(after - before >= 3_000_000, before + " -> " + after);
+    }
+
+    private double writeFailures() {
+        return meterRegistry.get("recommended.catalog.snapshot.write.failures").counter().count();
+    }
+
+    private double loads(String outcome) {
+        return meterRegistry.get("recommended.catalog.snapshot.loads").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,108 @@
+package com.books.recommendedservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemItemRecommenderTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldRecommendBooksLikedByUsersWithTheSameTaste() {
+        // Given - books 1 and 2 are liked together, book 3 by the others
+        RatingMatrix matrix = RatingMatrix.builder()
+                .add("u1", 1, 10).add("u1", 2, 9).add("u1", 3, 2)
+                .add("u2", 1, 9).add("u2", 2, 10).add("u2", 3, 1)
+                .add("u3", 1, 2).add("u3", 2, 1).add("u3", 3, 9)
+                .add("alice", 1, 10).add("alice", 4, 5)
+                .build();
+
+        // When
+        int[] alice = recommendationsOf(matrix, "alice", 10);
+
+        // Then
+        assertArrayEquals(new int[]{2}, alice);
+    }
+
+    @Test
+    void shouldNotRecommendBooksSimilarToOnesRatedLow() {
+        // Given
+        RatingMatrix matrix = RatingMatrix.builder()
+                .add("u1", 1, 10).add("u1", 2, 9).add("u1", 3, 2)
+                .add("u2", 1, 9).add("u2", 2, 10).add("u2", 3, 1)
+                .add("bob", 1, 1).add("bob", 5, 6)
+                .build();
+
+        // When
+        int[] bob = recommendationsOf(matrix, "bob", 10);
+
+        // Then
+        assertEquals(0, bob.length);
+    }
+
+    @Test
+    void shouldKeepAtMostPerUserBooks_BestFirst() {
+        // Given - everyone who rated book 1 also rated 2..6, less and less
+        RatingMatrix.Builder builder = RatingMatrix.builder();
+        for (int user = 0; user < 5; user++) {
+            builder.add("u" + user, 1, 10);
+            for (int book = 2; book <= 6; book++) {
+                builder.add("u" + user, book, 12 - book - (user + book) % 2);
+            }
+            builder.add("u" + user, 7, 1);
+        }
+        builder.add("carol", 1, 10).add("carol", 7, 1);
+
+        // When
+        int[] carol = recommendationsOf(builder.build(), "carol", 3);
+
+        // Then
+        assertEquals(3, carol.length);
+        for (int book : carol) {
+            assertNotEquals(1, book);
+            assertNotEquals(7, book);
+        }
+    }
+
+    @Test
+    void shouldGiveTheSameResult_WhateverTheParallelism() {
+        // Given
+        SplittableRandom random = new SplittableRandom(7);
+        RatingMatrix.Builder builder = RatingMatrix.builder();
+        for (int user = 0; user < 300; user++) {
+            for (int n = 0; n < 15; n++) {
+                builder.add("u" + user, random.nextInt(200), random.nextInt(1, 11));
+            }
+        }
+        RatingMatrix matrix = builder.build();
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        // When
+        int[][] sequential = new ItemItemRecommender(single, 10, 5).recommend(matrix);
+        int[][] parallel = new ItemItemRecommender(pool, 10, 5).recommend(matrix);
+        single.shutdown();
+
+        // Then
+        assertArrayEquals(sequential, parallel);
+    }
+
+    private int[] recommendationsOf(RatingMatrix matrix, String userId, int perUser) {
+        int[][] recommended = new ItemItemRecommender(pool, 5, perUser).recommend(matrix);
+        for (int user = 0; user < matrix.userCount(); user++) {
+            if (matrix.userId(user).equals(userId)) {
+                return recommended[user];
+            }
+        }
+        throw new AssertionError("Unknown user " + userId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookCatalog;
+import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.UserRatingClient;
+import com.books.recommendedservice.dto.BookDto;
+import com.books.recommendedservice.dto.UserRatingDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonalRecommenderTest {
+
+    @Mock
+    private UserRatingClient userRatingClient;
+
+    @Mock
+    private BookServiceClient bookServiceClient;
+
+    private PersonalRecommender personalRecommender;
+
+    @BeforeEach
+    void setUp() {
+        personalRecommender = new PersonalRecommender(userRatingClient, bookServiceClient,
+                new SimpleMeterRegistry(), false, 600_000, 5, 10, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldServePrecomputedBooksWithCatalogDetails() {
+        // Given
+        List<UserRatingDto> ratings = List.of(
+                new UserRatingDto("u1", 1, 10), new UserRatingDto("u1", 2, 9),
+                new UserRatingDto("u1", 3, 2), new UserRatingDto("u1", 4, 8),
+                new UserRatingDto("u2", 1, 9), new UserRatingDto("u2", 2, 10),
+                new UserRatingDto("u2", 3, 3), new UserRatingDto("u2", 4, 9),
+                new UserRatingDto("alice", 1, 10));
+        when(userRatingClient.forEachRating(any())).thenAnswer(invocation -> {
+            ratings.forEach(invocation.<Consumer<UserRatingDto>>getArgument(0));
+            return (long) ratings.size();
+        });
+        when(bookServiceClient.getCatalog()).thenReturn(new BookCatalog(List.of(
+                new BookDto(1, "Clean Code", 9), new BookDto(2, "Refactoring", 8),
+                new BookDto(3, "Twilight", 4), new BookDto(4, "Legacy Code", 7)),
+                "epoch", 4L));
+
+        // When
+        personalRecommender.refresh();
+
+        // Then
+        List<BookDto> alice = personalRecommender.recommend("alice", 10).orElseThrow().getBooks();
+        assertEquals(List.of("Refactoring", "Legacy Code"), alice.stream().map(BookDto::getTitle).toList());
+        assertEquals(1, personalRecommender.recommend("alice", 1).orElseThrow().getBooks().size());
+        assertTrue(personalRecommender.recommend("nobody", 10).isEmpty());
+    }
+
+    @Test
+    void shouldHaveNothingBeforeTheFirstBatch() {
+        assertTrue(personalRecommender.recommend("alice", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> personalRecommender.recommend("alice", 0));
+    }
+}
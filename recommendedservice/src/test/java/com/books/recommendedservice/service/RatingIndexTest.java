@@ -0,0 +1,92 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.dto.BookDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingIndexTest {
+
+    @Test
+    void topN_ShouldReturnHighestRatingsFirst_KeepingInsertionOrderWithinRating() {
+        // Given
+        RatingIndex index = new RatingIndex();
+        index.replaceAll(Arrays.asList(
+                new BookDto(1, "A", 7),
+                new BookDto(2, "B", 9),
+                new BookDto(3, "C", 7),
+                new BookDto(4, "D", 2)
+        ));
+
+        // When
+        List<Integer> ids = idsOf(index.topN(3));
+
+        // Then
+        assertEquals(Arrays.asList(2, 1, 3), ids);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void upsert_ShouldMoveBookToNewRatingBucket() {
+        // Given
+        RatingIndex index = new RatingIndex();
+        index.replaceAll(Arrays.asList(new BookDto(1, "A", 5), new BookDto(2, "B", 6)));
+
+        // When
+        index.upsert(new BookDto(1, "A", 10));
+        index.upsert(new BookDto(3, "C", 1));
+
+        // Then
+        assertEquals(Arrays.asList(1, 2, 3), idsOf(index.topN(10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void upsert_ShouldKeepPositionWhenRatingUnchanged() {
+        // Given
+        RatingIndex index = new RatingIndex();
+        index.replaceAll(Arrays.asList(new BookDto(1, "A", 5), new BookDto(2, "B", 5)));
+
+        // When
+        index.upsert(new BookDto(1, "A (2nd edition)", 5));
+
+        // Then
+        List<BookDto> top = index.topN(10);
+        assertEquals(Arrays.asList(1, 2), idsOf(top));
+        assertEquals("A (2nd edition)", top.get(0).getTitle());
+    }
+
+    @Test
+    void remove_ShouldDropBook() {
+        // Given
+        RatingIndex index = new RatingIndex();
+        index.replaceAll(Arrays.asList(new BookDto(1, "A", 5), new BookDto(2, "B", 6)));
+
+        // When
+        index.remove(2);
+        index.remove(99);
+
+        // Then
+        assertEquals(Arrays.asList(1), idsOf(index.topN(10)));
+    }
+
+    @Test
+    void replaceAll_ShouldClampOutOfRangeRatings() {
+        // Given
+        RatingIndex index = new RatingIndex();
+
+        // When
+        index.replaceAll(Arrays.asList(new BookDto(1, "A", 42), new BookDto(2, "B", null), new BookDto(3, "C", 4)));
+
+        // Then
+        assertEquals(Arrays.asList(1, 3, 2), idsOf(index.topN(10)));
+    }
+
+    private List<Integer> idsOf(List<BookDto> books) {
+        return books.stream().map(BookDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import com.books.recommendedservice.client.CircuitBreaker;
+import com.books.recommendedservice.client.ReactiveBookServiceClient;
+import com.books.recommendedservice.dto.BookDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveBookServiceClientTest {
+
+    private final String bookServiceUrl = "http://localhost:8080/api/books";
+
+    @Test
+    void getAllBooks_ShouldDecodeBooks_WhenServiceRespondsSuccessfully() {
+        // Given
+        ReactiveBookServiceClient client = newClient(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("[{\"id\":1,\"title\":\"Clean Code\",\"rating\":9},{\"id\":2,\"title\":\"Spring in Action\",\"rating\":8}]")
+                .build()), new CircuitBreaker(5, Duration.ofSeconds(10)));
+
+        // When
+        List<BookDto> books = client.getAllBooks().collectList().block();
+
+        // Then
+        assertNotNull(books);
+        assertEquals(2, books.size());
+        assertEquals("Clean Code", books.get(0).getTitle());
+    }
+
+    @Test
+    void getTopRated_ShouldAskBookServiceToSortAndLimit() {
+        // Given
+        AtomicReference<URI> requested = new AtomicReference<>();
+        ReactiveBookServiceClient client = newClient(request -> {
+            requested.set(request.url());
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("[{\"id\":2,\"title\":\"Excellent Book\",\"rating\":10}]")
+                    .build());
+        }, new CircuitBreaker(5, Duration.ofSeconds(10)));
+
+        // When
+        List<BookDto> books = client.getTopRated(1).collectList().block();
+
+        // Then
+        assertNotNull(books);
+        assertEquals(1, books.size());
+        assertEquals(URI.create(bookServiceUrl + "?sort=rating,desc&limit=1"), requested.get());
+    }
+
+    @Test
+    void getAllBooks_ShouldFailFast_WhenCircuitIsOpen() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(10));
+        ReactiveBookServiceClient client = newClient(request -> {
+            calls.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        }, circuitBreaker);
+
+        // When
+        BookServiceUnavailableException first = assertThrows(BookServiceUnavailableException.class,
+                () -> client.getAllBooks().collectList().block());
+        BookServiceUnavailableException second = assertThrows(BookServiceUnavailableException.class,
+                () -> client.getAllBooks().collectList().block());
+
+        // Then
+        assertNotNull(first.getCause());
+        assertNull(second.getCause());
+        assertEquals(1, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private ReactiveBookServiceClient newClient(ExchangeFunction exchangeFunction, CircuitBreaker circuitBreaker) {
+        return new ReactiveBookServiceClient(WebClient.builder().exchangeFunction(exchangeFunction).build(),
+                bookServiceUrl, circuitBreaker);
+    }
+}
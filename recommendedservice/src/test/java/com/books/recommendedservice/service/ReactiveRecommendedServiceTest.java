@@ -0,0 +1,133 @@
+package com.books.recommendedservice.service;
+
+import com.books.recommendedservice.client.BookCatalog;
+import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import com.books.recommendedservice.client.CatalogSnapshot;
+import com.books.recommendedservice.client.ReactiveBookServiceClient;
+import com.books.recommendedservice.dto.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveRecommendedServiceTest {
+
+    @Mock
+    private ReactiveBookServiceClient bookServiceClient;
+
+    @Mock
+    private BookServiceClient catalogClient;
+
+    @Mock
+    private BookChangeSubscriber bookChangeSubscriber;
+
+    private RatingIndex ratingIndex;
+
+    private ReactiveRecommendedService recommendationService;
+
+    @BeforeEach
+    void setUp() {
+        ratingIndex = new RatingIndex();
+        recommendationService = new ReactiveRecommendedService(bookServiceClient, catalogClient, ratingIndex, bookChangeSubscriber, 0);
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldReturnTopN_ByRatingDescending() {
+        // Given
+        when(bookServiceClient.getAllBooks()).thenReturn(Flux.just(
+                new BookDto(1, "Average Book", 5),
+                new BookDto(2, "Excellent Book", 10),
+                new BookDto(3, "Good Book", 8)
+        ));
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc(2).block();
+
+        // Then
+        assertNotNull(result);
+        assertEquals(2, result.size());
+        assertEquals("Excellent Book", result.get(0).getTitle());
+        assertEquals("Good Book", result.get(1).getTitle());
+        assertEquals(0, ratingIndex.size());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldAskBookServiceForTopN_WhenLimitIsBounded() {
+        // Given
+        recommendationService = new ReactiveRecommendedService(bookServiceClient, catalogClient, ratingIndex, bookChangeSubscriber, 100);
+        when(bookServiceClient.getTopRated(1)).thenReturn(Flux.just(new BookDto(2, "Excellent Book", 10)));
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc(1).block();
+
+        // Then
+        assertNotNull(result);
+        assertEquals("Excellent Book", result.get(0).getTitle());
+        verify(bookServiceClient, never()).getAllBooks();
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldServeFromReplica_WhenChangeFeedSynced() {
+        // Given
+        ratingIndex.replaceAll(Arrays.asList(new BookDto(1, "Replica Book", 6)));
+        when(bookChangeSubscriber.isSynced()).thenReturn(true);
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc(10).block();
+
+        // Then
+        verify(bookServiceClient, never()).getAllBooks();
+        assertEquals(1, result.size());
+        assertEquals("Replica Book", result.get(0).getTitle());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldServeLastKnownCatalog_WhenTopRatedIsUnavailable() {
+        // Given
+        recommendationService = new ReactiveRecommendedService(bookServiceClient, catalogClient, ratingIndex, bookChangeSubscriber, 100);
+        when(bookServiceClient.getTopRated(1)).thenReturn(Flux.error(
+                new BookServiceUnavailableException("BookService is down", null, 1000)));
+        when(catalogClient.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(new BookCatalog(
+                Arrays.asList(new BookDto(1, "Average Book", 5), new BookDto(2, "Excellent Book", 10)),
+                "epoch-1", 4L), 30_000, true));
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc(1).block();
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Excellent Book", result.get(0).getTitle());
+        assertEquals(0, ratingIndex.size());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldFail_WhenBookServiceIsUnavailableAndNoCatalogIsKnown() {
+        // Given
+        when(bookServiceClient.getAllBooks()).thenReturn(Flux.error(
+                new BookServiceUnavailableException("BookService is down", null, 1000)));
+        when(catalogClient.getCatalogSnapshot()).thenThrow(
+                new BookServiceUnavailableException("BookService is down", null, 1000));
+
+        // When / Then
+        assertThrows(BookServiceUnavailableException.class,
+                () -> recommendationService.getRecommendedBooksByRatingDesc(10).block());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldRejectNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> recommendationService.getRecommendedBooksByRatingDesc(0).block());
+    }
+}
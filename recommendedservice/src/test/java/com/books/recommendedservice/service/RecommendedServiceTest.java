@@ -1,7 +1,11 @@
 package com.books.recommendedservice.service;
 
+import com.books.recommendedservice.client.BookCatalog;
 import com.books.recommendedservice.client.BookServiceClient;
+import com.books.recommendedservice.client.BookServiceUnavailableException;
+import com.books.recommendedservice.client.CatalogSnapshot;
 import com.books.recommendedservice.dto.BookDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
 class RecommendationServiceTest {
@@ -23,11 +28,21 @@ class RecommendationServiceTest {
     @Mock
     private BookServiceClient bookServiceClient;
 
+    @Mock
+    private BookChangeSubscriber bookChangeSubscriber;
+
+    private RatingIndex ratingIndex;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private RecommendedService recommendationService;
 
     @BeforeEach
     void setUp() {
-        recommendationService = new RecommendedService(bookServiceClient);
+        ratingIndex = new RatingIndex();
+        meterRegistry = new SimpleMeterRegistry();
+        // Rank locally unless a test turns on the top-N call to BookService
+        recommendationService = newService(0);
     }
 
     @Test
@@ -38,13 +53,13 @@ class RecommendationServiceTest {
         BookDto book3 = new BookDto(3, "Good Book", 8);
         List<BookDto> unsortedBooks = Arrays.asList(book1, book2, book3);
 
-        when(bookServiceClient.getAllBooks()).thenReturn(unsortedBooks);
+        givenCatalog(unsortedBooks);
 
         // When
         List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc();
 
         // Then
-        verify(bookServiceClient, times(1)).getAllBooks();
+        verify(bookServiceClient, times(1)).getCatalogSnapshot();
         assertEquals(3, result.size());
         
         // Verify descending order by rating
@@ -56,14 +71,168 @@ class RecommendationServiceTest {
     @Test
     void getRecommendedBooks_ShouldReturnEmptyList_WhenNoBooks() {
         // Given
-        when(bookServiceClient.getAllBooks()).thenReturn(Collections.emptyList());
+        givenCatalog(Collections.emptyList());
 
         // When
         List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc();
 
         // Then
-        verify(bookServiceClient, times(1)).getAllBooks();
+        verify(bookServiceClient, times(1)).getCatalogSnapshot();
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRecommendedBooks_ShouldReturnTopN_WhenLimitGiven() {
+        // Given
+        givenCatalog(Arrays.asList(
+                new BookDto(1, "Average Book", 5),
+                new BookDto(2, "Excellent Book", 10),
+                new BookDto(3, "Good Book", 8),
+                new BookDto(4, "Great Book", 9)
+        ));
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc(2);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("Excellent Book", result.get(0).getTitle());
+        assertEquals("Great Book", result.get(1).getTitle());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldAskBookServiceForTopN_WhenLimitIsBounded() {
+        // Given
+        List<BookDto> topRated = Arrays.asList(new BookDto(2, "Excellent Book", 10), new BookDto(3, "Good Book", 8));
+        when(bookServiceClient.getTopRated(2)).thenReturn(topRated);
+        recommendationService = newService(100);
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc(2);
+
+        // Then
+        assertSame(topRated, result);
+        verify(bookServiceClient, never()).getCatalogSnapshot();
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldFallBackToCatalogSnapshot_WhenTopNCallFails() {
+        // Given
+        when(bookServiceClient.getTopRated(1))
+                .thenThrow(new BookServiceUnavailableException("BookService is down", null, 1000));
+        recommendationService = newService(100);
+        when(bookServiceClient.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(
+                new BookCatalog(Arrays.asList(new BookDto(1, "Cached Book", 7)), null, null), 5_000, true));
+
+        // When
+        Recommendations result = recommendationService.getRecommendations(1);
+
+        // Then
+        assertEquals("Cached Book", result.getBooks().get(0).getTitle());
+        assertTrue(result.isStale());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldRejectNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> recommendationService.getRecommendedBooksByRatingDesc(0));
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldServeFromReplica_WhenChangeFeedSynced() {
+        // Given
+        ratingIndex.replaceAll(Arrays.asList(new BookDto(1, "Replica Book", 6)));
+        when(bookChangeSubscriber.isSynced()).thenReturn(true);
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc();
+
+        // Then
+        verify(bookServiceClient, never()).getCatalogSnapshot();
+        assertEquals(1, result.size());
+        assertEquals("Replica Book", result.get(0).getTitle());
+        assertEquals(0, meterRegistry.get("recommended.ranking").tag("step", "index").timer().count());
+        assertEquals(1, meterRegistry.get("recommended.ranking").tag("step", "top-n").timer().count());
+        assertEquals(1.0, meterRegistry.get("recommended.catalog.size").gauge().value());
+    }
+
+    @Test
+    void getRecommendations_ShouldReportReplicaAge_WhenChangeFeedIsFailing() {
+        // Given
+        ratingIndex.replaceAll(Arrays.asList(new BookDto(1, "Replica Book", 6)));
+        when(bookChangeSubscriber.isSynced()).thenReturn(true);
+        when(bookChangeSubscriber.getAgeMillis()).thenReturn(90_000L);
+        when(bookChangeSubscriber.isStale()).thenReturn(true);
+
+        // When
+        Recommendations result = recommendationService.getRecommendations(10);
+
+        // Then
+        assertEquals("Replica Book", result.getBooks().get(0).getTitle());
+        assertEquals(90_000, result.getAgeMillis());
+        assertTrue(result.isStale());
+    }
+
+    @Test
+    void getRecommendedBooks_ShouldNotWriteReplicaIndex_WhenRankingFetchedCatalog() {
+        // Given
+        ratingIndex.replaceAll(Arrays.asList(new BookDto(1, "Replica Book", 6)));
+        givenCatalog(Arrays.asList(new BookDto(2, "Fetched Book", 9), new BookDto(3, "Other Book", 4)));
+
+        // When
+        List<BookDto> result = recommendationService.getRecommendedBooksByRatingDesc();
+
+        // Then
+        assertEquals("Fetched Book", result.get(0).getTitle());
+        assertEquals(1, ratingIndex.size());
+        assertEquals("Replica Book", ratingIndex.topN(1).get(0).getTitle());
+        assertEquals(2.0, meterRegistry.get("recommended.catalog.size").gauge().value());
+    }
+
+    @Test
+    void getRecommendations_ShouldReportSnapshotAge_WhenServedFromStaleCatalog() {
+        // Given
+        when(bookServiceClient.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(
+                new BookCatalog(Arrays.asList(new BookDto(1, "Cached Book", 7)), null, null), 42_000, true));
+
+        // When
+        Recommendations result = recommendationService.getRecommendations(10);
+
+        // Then
+        assertEquals(1, result.getBooks().size());
+        assertEquals(42_000, result.getAgeMillis());
+        assertTrue(result.isStale());
+    }
+
+    @Test
+    void getRecommendations_ShouldRankEachCatalogInstanceOnce_AndFollowNewerCatalogs() {
+        // Given
+        List<BookDto> older = Arrays.asList(new BookDto(1, "Old Book", 9));
+        List<BookDto> newer = Arrays.asList(new BookDto(1, "Old Book", 2), new BookDto(2, "New Book", 8));
+        when(bookServiceClient.getCatalogSnapshot()).thenReturn(
+                new CatalogSnapshot(new BookCatalog(older, null, null), 0, false),
+                new CatalogSnapshot(new BookCatalog(newer, null, null), 0, false),
+                // A 304 hands back the same list instance
+                new CatalogSnapshot(new BookCatalog(newer, null, null), 0, false));
+
+        // When
+        recommendationService.getRecommendations(1);
+        recommendationService.getRecommendations(1);
+        Recommendations result = recommendationService.getRecommendations(1);
+
+        // Then
+        assertEquals("New Book", result.getBooks().get(0).getTitle());
+        assertEquals(2, meterRegistry.get("recommended.ranking").tag("step", "index").timer().count());
+    }
+
+    private RecommendedService newService(int topRatedMaxLimit) {
+        return new RecommendedService(bookServiceClient, ratingIndex, bookChangeSubscriber, meterRegistry,
+                topRatedMaxLimit);
+    }
+
+    private void givenCatalog(List<BookDto> books) {
+        when(bookServiceClient.getCatalogSnapshot())
+                .thenReturn(new CatalogSnapshot(new BookCatalog(books, null, null), 0, false));
+    }
+}